@@ -19,13 +19,12 @@ import care.better.platform.web.template.converter.CompositionConverter;
 import care.better.platform.web.template.provider.WebTemplateProvider;
 import care.better.platform.web.template.validator.CompositionValidator;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -33,7 +32,7 @@ import java.nio.charset.StandardCharsets;
  */
 
 public abstract class AbstractWebTemplateTest {
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(JsonParser.Feature.ALLOW_COMMENTS);
 
     @SuppressWarnings("NoopMethodInAbstractClass")
     @BeforeEach
@@ -47,9 +46,9 @@ public abstract class AbstractWebTemplateTest {
 
     }
 
-    private CompositionConverter compositionConverter;
-    private WebTemplateProvider webTemplateProvider;
-    private CompositionValidator compositionValidator;
+    private volatile CompositionConverter compositionConverter;
+    private volatile WebTemplateProvider webTemplateProvider;
+    private volatile CompositionValidator compositionValidator;
 
     public CompositionConverter getCompositionConverter() {
         return compositionConverter;
@@ -76,17 +75,15 @@ public abstract class AbstractWebTemplateTest {
     }
 
     protected String getFileContent(String fileName) throws IOException {
-        try (InputStream inputStream = getClass().getResourceAsStream(fileName)) {
-            if (inputStream == null) {
-                throw new IllegalStateException(String.format("File with name %s was not found.", fileName));
-            }
-            String fileString = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
-            if (fileName.endsWith(".json")) {
-                objectMapper.enable(JsonParser.Feature.ALLOW_COMMENTS);
-                fileString = objectMapper.writeValueAsString(objectMapper.readTree(fileString));
-            }
-            return fileString;
-        }
+        return new String(ResourceCache.getInstance().get(getClass(), fileName), StandardCharsets.UTF_8);
+    }
+
+    protected byte[] getFileBytes(String fileName) throws IOException {
+        return ResourceCache.getInstance().get(getClass(), fileName).clone();
+    }
+
+    protected JsonNode getJsonNode(String fileName) throws IOException {
+        return objectMapper.readTree(ResourceCache.getInstance().get(getClass(), fileName));
     }
 
     protected ObjectMapper getObjectMapper() {
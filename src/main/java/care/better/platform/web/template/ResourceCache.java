@@ -0,0 +1,153 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache of loaded test resources, bounded by the total number of cached bytes. JSON resources are cached in
+ * their normalized form (parsed with comments allowed and written back without them).
+ * <p>
+ * The bound of the shared instance is set with the {@value #MAX_SIZE_PROPERTY} system property (in bytes).
+ */
+public final class ResourceCache {
+    public static final String MAX_SIZE_PROPERTY = "care.better.platform.web.template.resource.cache.size";
+
+    private static final long DEFAULT_MAX_SIZE = 128L * 1024L * 1024L;
+    private static final ResourceCache INSTANCE = new ResourceCache(Long.getLong(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE));
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(JsonParser.Feature.ALLOW_COMMENTS);
+
+    private final long maxSize;
+    private final LinkedHashMap<String, byte[]> resources = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public ResourceCache(long maxSize) {
+        if (maxSize < 0L) {
+            throw new IllegalArgumentException(String.format("Max size must not be negative, was %s.", maxSize));
+        }
+        this.maxSize = maxSize;
+    }
+
+    public static ResourceCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the content of the resource. The returned array is shared and must not be modified.
+     *
+     * @param resourceClass Class the resource name is resolved against
+     * @param fileName      Resource name
+     * @return Resource content, normalized if the resource is a JSON file
+     * @throws IllegalStateException if the resource was not found
+     */
+    byte[] get(Class<?> resourceClass, String fileName) throws IOException {
+        URL url = resourceClass.getResource(fileName);
+        if (url == null) {
+            throw new IllegalStateException(String.format("File with name %s was not found.", fileName));
+        }
+        String key = url.toExternalForm();
+
+        synchronized (this) {
+            byte[] content = resources.get(key);
+            if (content != null) {
+                hitCount++;
+                return content;
+            }
+            missCount++;
+        }
+
+        byte[] content = load(url, fileName.endsWith(".json"));
+        synchronized (this) {
+            byte[] previous = resources.put(key, content);
+            if (previous != null) {
+                size -= previous.length;
+            }
+            size += content.length;
+            evict();
+        }
+        return content;
+    }
+
+    private static byte[] load(URL url, boolean json) throws IOException {
+        try (InputStream inputStream = url.openStream()) {
+            byte[] content = IOUtils.toByteArray(inputStream);
+            return json ? OBJECT_MAPPER.writeValueAsBytes(OBJECT_MAPPER.readTree(content)) : content;
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, byte[]>> iterator = resources.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<String, byte[]> entry = iterator.next();
+            iterator.remove();
+            size -= entry.getValue().length;
+            evictionCount++;
+        }
+    }
+
+    public synchronized void clear() {
+        resources.clear();
+        size = 0L;
+    }
+
+    public synchronized int size() {
+        return resources.size();
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ResourceCache{" +
+                "size=" + size +
+                ", maxSize=" + maxSize +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                '}';
+    }
+}
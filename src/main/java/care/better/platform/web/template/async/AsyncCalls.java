@@ -0,0 +1,53 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.async;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the blocking service provider interface methods for their default asynchronous variants. Checked exceptions complete the
+ * returned {@code CompletableFuture} exceptionally, wrapped in a {@code CompletionException}.
+ */
+public final class AsyncCalls {
+
+    private AsyncCalls() {
+    }
+
+    /**
+     * Runs the call on the executor.
+     *
+     * @param call     Blocking call
+     * @param executor Executor the call runs on
+     * @param <T>      Result type
+     * @return {@code CompletableFuture} completed with the result of the call
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Callable<T> call, Executor executor) {
+        return CompletableFuture.supplyAsync(
+                () -> {
+                    try {
+                        return call.call();
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                },
+                executor);
+    }
+}
@@ -0,0 +1,294 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.context;
+
+import java.nio.charset.Charset;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable, typed set of default values used when a composition is built. Values are validated when the context is
+ * built, so one instance can be reused for any number of conversions.
+ */
+public final class CompositionBuilderContext {
+    private static final CompositionBuilderContext EMPTY = new CompositionBuilderContext(new EnumMap<>(CompositionBuilderContextKey.class));
+
+    private final EnumMap<CompositionBuilderContextKey, Object> values;
+    private final Map<String, Object> map;
+
+    private CompositionBuilderContext(EnumMap<CompositionBuilderContextKey, Object> values) {
+        this.values = values;
+        Map<String, Object> keyedValues = new LinkedHashMap<>();
+        values.forEach((key, value) -> keyedValues.put(key.getKey(), value));
+        this.map = Collections.unmodifiableMap(keyedValues);
+    }
+
+    public static CompositionBuilderContext empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a context from a composition builder context map keyed by {@link CompositionBuilderContextKey#getKey()}.
+     * Date time values may be given as ISO-8601 strings and locales as language tags.
+     *
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return {@link CompositionBuilderContext}
+     * @throws IllegalArgumentException if a key is unknown or a value is not valid for its key
+     */
+    public static CompositionBuilderContext fromMap(Map<String, Object> compositionBuilderContext) {
+        Builder builder = builder();
+        compositionBuilderContext.forEach((key, value) -> {
+            CompositionBuilderContextKey contextKey = CompositionBuilderContextKey.forKey(key);
+            builder.set(contextKey, coerce(contextKey, value));
+        });
+        return builder.build();
+    }
+
+    /**
+     * Returns the context as a composition builder context map keyed by {@link CompositionBuilderContextKey#getKey()}.
+     *
+     * @return Unmodifiable {@code Map} containing default values that will be used when composition is built
+     */
+    public Map<String, Object> toMap() {
+        return map;
+    }
+
+    public boolean contains(CompositionBuilderContextKey key) {
+        return values.containsKey(key);
+    }
+
+    public Object get(CompositionBuilderContextKey key) {
+        return values.get(key);
+    }
+
+    public String getLanguage() {
+        return (String)values.get(CompositionBuilderContextKey.LANGUAGE);
+    }
+
+    public String getComposerName() {
+        return (String)values.get(CompositionBuilderContextKey.COMPOSER_NAME);
+    }
+
+    public String getTerritory() {
+        return (String)values.get(CompositionBuilderContextKey.TERRITORY);
+    }
+
+    public String getIsmTransition() {
+        return (String)values.get(CompositionBuilderContextKey.ISM_TRANSITION);
+    }
+
+    public OffsetDateTime getStartTime() {
+        return (OffsetDateTime)values.get(CompositionBuilderContextKey.START_TIME);
+    }
+
+    public OffsetDateTime getEndTime() {
+        return (OffsetDateTime)values.get(CompositionBuilderContextKey.END_TIME);
+    }
+
+    public String getLocation() {
+        return (String)values.get(CompositionBuilderContextKey.LOCATION);
+    }
+
+    public String getEncoding() {
+        return (String)values.get(CompositionBuilderContextKey.ENCODING);
+    }
+
+    public Locale getLocale() {
+        return (Locale)values.get(CompositionBuilderContextKey.LOCALE);
+    }
+
+    public Boolean getActionToInstructionHandler() {
+        return (Boolean)values.get(CompositionBuilderContextKey.ACTION_TO_INSTRUCTION_HANDLER);
+    }
+
+    public String getIdScheme() {
+        return (String)values.get(CompositionBuilderContextKey.ID_SCHEME);
+    }
+
+    public String getIdNamespace() {
+        return (String)values.get(CompositionBuilderContextKey.ID_NAMESPACE);
+    }
+
+    public String getActivityTimingProvider() {
+        return (String)values.get(CompositionBuilderContextKey.ACTIVITY_TIMING_PROVIDER);
+    }
+
+    public String getInstructionsNarrativeProvider() {
+        return (String)values.get(CompositionBuilderContextKey.INSTRUCTIONS_NARRATIVE_PROVIDER);
+    }
+
+    public String getTermBindingTerminologies() {
+        return (String)values.get(CompositionBuilderContextKey.TERM_BINDING_TERMINOLOGIES);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return values.equals(((CompositionBuilderContext)o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "CompositionBuilderContext" + map;
+    }
+
+    private static Object coerce(CompositionBuilderContextKey key, Object value) {
+        if (value instanceof String) {
+            String stringValue = (String)value;
+            if (key.getValueType() == OffsetDateTime.class) {
+                try {
+                    return OffsetDateTime.parse(stringValue);
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException(String.format("Value %s of %s is not an ISO-8601 date time.", stringValue, key.getKey()), e);
+                }
+            }
+            if (key.getValueType() == Locale.class) {
+                return Locale.forLanguageTag(stringValue.replace('_', '-'));
+            }
+            if (key.getValueType() == Boolean.class) {
+                if ("true".equalsIgnoreCase(stringValue) || "false".equalsIgnoreCase(stringValue)) {
+                    return Boolean.valueOf(stringValue);
+                }
+                throw new IllegalArgumentException(String.format("Value %s of %s is not a boolean.", stringValue, key.getKey()));
+            }
+        }
+        return value;
+    }
+
+    public static final class Builder {
+        private final EnumMap<CompositionBuilderContextKey, Object> values = new EnumMap<>(CompositionBuilderContextKey.class);
+
+        private Builder() {
+        }
+
+        public Builder set(CompositionBuilderContextKey key, Object value) {
+            if (value == null) {
+                values.remove(key);
+            } else if (key.getValueType().isInstance(value)) {
+                values.put(key, value);
+            } else {
+                throw new IllegalArgumentException(String.format(
+                        "Value of %s must be an instance of %s but was %s.",
+                        key.getKey(),
+                        key.getValueType().getSimpleName(),
+                        value.getClass().getSimpleName()));
+            }
+            return this;
+        }
+
+        public Builder language(String language) {
+            return set(CompositionBuilderContextKey.LANGUAGE, language);
+        }
+
+        public Builder composerName(String composerName) {
+            return set(CompositionBuilderContextKey.COMPOSER_NAME, composerName);
+        }
+
+        public Builder territory(String territory) {
+            return set(CompositionBuilderContextKey.TERRITORY, territory);
+        }
+
+        public Builder ismTransition(String ismTransition) {
+            return set(CompositionBuilderContextKey.ISM_TRANSITION, ismTransition);
+        }
+
+        public Builder startTime(OffsetDateTime startTime) {
+            return set(CompositionBuilderContextKey.START_TIME, startTime);
+        }
+
+        public Builder endTime(OffsetDateTime endTime) {
+            return set(CompositionBuilderContextKey.END_TIME, endTime);
+        }
+
+        public Builder location(String location) {
+            return set(CompositionBuilderContextKey.LOCATION, location);
+        }
+
+        public Builder encoding(String encoding) {
+            return set(CompositionBuilderContextKey.ENCODING, encoding);
+        }
+
+        public Builder locale(Locale locale) {
+            return set(CompositionBuilderContextKey.LOCALE, locale);
+        }
+
+        public Builder actionToInstructionHandler(boolean actionToInstructionHandler) {
+            return set(CompositionBuilderContextKey.ACTION_TO_INSTRUCTION_HANDLER, actionToInstructionHandler);
+        }
+
+        public Builder idScheme(String idScheme) {
+            return set(CompositionBuilderContextKey.ID_SCHEME, idScheme);
+        }
+
+        public Builder idNamespace(String idNamespace) {
+            return set(CompositionBuilderContextKey.ID_NAMESPACE, idNamespace);
+        }
+
+        public Builder activityTimingProvider(String activityTimingProvider) {
+            return set(CompositionBuilderContextKey.ACTIVITY_TIMING_PROVIDER, activityTimingProvider);
+        }
+
+        public Builder instructionsNarrativeProvider(String instructionsNarrativeProvider) {
+            return set(CompositionBuilderContextKey.INSTRUCTIONS_NARRATIVE_PROVIDER, instructionsNarrativeProvider);
+        }
+
+        public Builder termBindingTerminologies(String termBindingTerminologies) {
+            return set(CompositionBuilderContextKey.TERM_BINDING_TERMINOLOGIES, termBindingTerminologies);
+        }
+
+        /**
+         * Builds the context.
+         *
+         * @return {@link CompositionBuilderContext}
+         * @throws IllegalArgumentException if a value is not valid for its key
+         */
+        public CompositionBuilderContext build() {
+            validateCodedValue(CompositionBuilderContextKey.ISM_TRANSITION);
+            validateCodedValue(CompositionBuilderContextKey.ACTIVITY_TIMING_PROVIDER);
+            String encoding = (String)values.get(CompositionBuilderContextKey.ENCODING);
+            if (encoding != null && !Charset.isSupported(encoding)) {
+                throw new IllegalArgumentException(String.format("Encoding %s is not supported.", encoding));
+            }
+            return values.isEmpty() ? EMPTY : new CompositionBuilderContext(new EnumMap<>(values));
+        }
+
+        private void validateCodedValue(CompositionBuilderContextKey key) {
+            String value = (String)values.get(key);
+            if (value != null && !value.contains("::")) {
+                throw new IllegalArgumentException(String.format("Value %s of %s must contain a :: separator.", value, key.getKey()));
+            }
+        }
+    }
+}
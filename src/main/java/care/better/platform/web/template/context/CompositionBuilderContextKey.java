@@ -1,33 +1,51 @@
 package care.better.platform.web.template.context;
 
+import java.time.OffsetDateTime;
+import java.util.Locale;
+
 /**
  * @author Primoz Delopst
  */
 
 public enum CompositionBuilderContextKey {
-    LANGUAGE("language"),
-    COMPOSER_NAME("composerName"),
-    TERRITORY("territory"),
-    ISM_TRANSITION("ism_transition"),
-    START_TIME("start_time"),
-    END_TIME("end_time"),
-    LOCATION("location"),
-    ENCODING("encoding"),
-    LOCALE("locale"),
-    ACTION_TO_INSTRUCTION_HANDLER("action_handler"),
-    ID_SCHEME("id_scheme"),
-    ID_NAMESPACE("id_namespace"),
-    ACTIVITY_TIMING_PROVIDER("activity_timing_provider"),
-    INSTRUCTIONS_NARRATIVE_PROVIDER("instructions_narrative_provider"),
-    TERM_BINDING_TERMINOLOGIES("term_binding_terminologies");
+    LANGUAGE("language", String.class),
+    COMPOSER_NAME("composerName", String.class),
+    TERRITORY("territory", String.class),
+    ISM_TRANSITION("ism_transition", String.class),
+    START_TIME("start_time", OffsetDateTime.class),
+    END_TIME("end_time", OffsetDateTime.class),
+    LOCATION("location", String.class),
+    ENCODING("encoding", String.class),
+    LOCALE("locale", Locale.class),
+    ACTION_TO_INSTRUCTION_HANDLER("action_handler", Boolean.class),
+    ID_SCHEME("id_scheme", String.class),
+    ID_NAMESPACE("id_namespace", String.class),
+    ACTIVITY_TIMING_PROVIDER("activity_timing_provider", String.class),
+    INSTRUCTIONS_NARRATIVE_PROVIDER("instructions_narrative_provider", String.class),
+    TERM_BINDING_TERMINOLOGIES("term_binding_terminologies", String.class);
 
     private final String key;
+    private final Class<?> valueType;
 
-    CompositionBuilderContextKey(String key) {
+    CompositionBuilderContextKey(String key, Class<?> valueType) {
         this.key = key;
+        this.valueType = valueType;
     }
 
     public String getKey() {
         return key;
     }
+
+    public Class<?> getValueType() {
+        return valueType;
+    }
+
+    public static CompositionBuilderContextKey forKey(String key) {
+        for (CompositionBuilderContextKey contextKey : values()) {
+            if (contextKey.key.equals(key)) {
+                return contextKey;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Unknown composition builder context key %s.", key));
+    }
 }
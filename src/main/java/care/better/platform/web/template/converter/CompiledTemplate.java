@@ -0,0 +1,40 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.converter;
+
+/**
+ * Handle to a template prepared by {@link CompositionConverter#compile(String, String)}.
+ * <p>
+ * Implementations of {@link CompositionConverter} can return their own handle holding the parsed template, so it does not
+ * have to be parsed again on every conversion. Such implementations also override the conversion methods taking a handle, since
+ * the default ones only accept the handle returned by the default {@link CompositionConverter#compile(String, String)}.
+ */
+public interface CompiledTemplate {
+
+    /**
+     * Returns the id of the template the handle was compiled from.
+     *
+     * @return Template id, or {@code null} if the template has none
+     */
+    String getTemplateId();
+
+    /**
+     * Returns the default language the handle was compiled with.
+     *
+     * @return Template default language
+     */
+    String getDefaultLanguage();
+}
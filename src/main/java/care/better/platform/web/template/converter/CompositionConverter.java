@@ -15,13 +15,35 @@
 
 package care.better.platform.web.template.converter;
 
+import care.better.platform.web.template.async.AsyncCalls;
+import care.better.platform.web.template.context.CompositionBuilderContext;
+import care.better.platform.web.template.registry.TemplateRegistry;
+import care.better.platform.web.template.validator.CompositionValidator;
+import care.better.platform.web.template.validator.ValidationOptions;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
+ * Converts compositions between the RAW, FLAT and STRUCTURED formats.
+ * <p>
+ * Only the json string methods have to be implemented. The default json tree and {@code Map} variants serialize the
+ * composition, call the json string variant and parse its result, and the default {@code ObjectMapper} variants parse the
+ * json string and call the json tree variant. The defaults therefore give no speedup over the json string methods, they only
+ * save the caller the conversion. Implementations that work on json trees should override the json tree variants, which the
+ * {@code ObjectMapper} variants then use as well.
+ *
  * @author Primoz Delopst
  */
 
@@ -113,13 +135,12 @@ public interface CompositionConverter {
      * @param rawComposition  RAW composition json string
      * @return FLAT composition
      */
-    @SuppressWarnings("AnonymousInnerClassMayBeStatic")
     default Map<String, Object> convertRawToFlat(
             String template,
             String defaultLanguage,
             String rawComposition,
             ObjectMapper objectMapper) throws Exception {
-        return objectMapper.readValue(convertRawToFlat(template, defaultLanguage, rawComposition), new TypeReference<Map<String, Object>>() {});
+        return convertRawToFlat(template, defaultLanguage, objectMapper.readTree(rawComposition));
     }
 
     /**
@@ -135,7 +156,7 @@ public interface CompositionConverter {
             String defaultLanguage,
             String rawComposition,
             ObjectMapper objectMapper) throws Exception {
-        return objectMapper.readValue(convertRawToStructured(template, defaultLanguage, rawComposition), JsonNode.class);
+        return convertRawToStructured(template, defaultLanguage, objectMapper.readTree(rawComposition));
     }
 
 
@@ -148,14 +169,14 @@ public interface CompositionConverter {
      * @param compositionBuilderContext Map containing default values that will be used when composition is built
      * @return RAW composition
      */
+    @SuppressWarnings("AnonymousInnerClassMayBeStatic")
     default JsonNode convertFlatToRaw(
             String template,
             String defaultLanguage,
             String flatComposition,
             Map<String, Object> compositionBuilderContext,
             ObjectMapper objectMapper) throws Exception {
-        return objectMapper.readValue(convertFlatToRaw(template, defaultLanguage, flatComposition, compositionBuilderContext), JsonNode.class);
-
+        return convertFlatToRaw(template, defaultLanguage, objectMapper.readValue(flatComposition, new TypeReference<Map<String, Object>>() {}), compositionBuilderContext);
     }
 
     /**
@@ -167,14 +188,13 @@ public interface CompositionConverter {
      * @param compositionBuilderContext Map containing default values that will be used when composition is built
      * @return FLAT composition
      */
-    @SuppressWarnings("AnonymousInnerClassMayBeStatic")
     default Map<String, Object> convertStructuredToFlat(
             String template,
             String defaultLanguage,
             String structuredComposition,
             Map<String, Object> compositionBuilderContext,
             ObjectMapper objectMapper) throws Exception {
-        return objectMapper.readValue(convertStructuredToFlat(template, defaultLanguage, structuredComposition, compositionBuilderContext), new TypeReference<Map<String, Object>>() {});
+        return convertStructuredToFlat(template, defaultLanguage, objectMapper.readTree(structuredComposition), compositionBuilderContext);
     }
 
     /**
@@ -186,13 +206,14 @@ public interface CompositionConverter {
      * @param compositionBuilderContext Map containing default values that will be used when composition is built
      * @return STRUCTURED composition
      */
+    @SuppressWarnings("AnonymousInnerClassMayBeStatic")
     default JsonNode convertFlatToStructured(
             String template,
             String defaultLanguage,
             String flatComposition,
             Map<String, Object> compositionBuilderContext,
             ObjectMapper objectMapper) throws Exception {
-        return objectMapper.readValue(convertFlatToStructured(template, defaultLanguage, flatComposition, compositionBuilderContext), JsonNode.class);
+        return convertFlatToStructured(template, defaultLanguage, objectMapper.readValue(flatComposition, new TypeReference<Map<String, Object>>() {}), compositionBuilderContext);
     }
 
     /**
@@ -210,7 +231,7 @@ public interface CompositionConverter {
             String structuredComposition,
             Map<String, Object> compositionBuilderContext,
             ObjectMapper objectMapper) throws Exception {
-        return objectMapper.readValue(convertStructuredToRaw(template, defaultLanguage, structuredComposition, compositionBuilderContext), JsonNode.class);
+        return convertStructuredToRaw(template, defaultLanguage, objectMapper.readTree(structuredComposition), compositionBuilderContext);
     }
 
     /**
@@ -230,6 +251,1114 @@ public interface CompositionConverter {
             Map<String, Object> compositionBuilderContext,
             Map<String, Object> deltaValues,
             ObjectMapper objectMapper) throws Exception {
-        return objectMapper.readValue(updateRawComposition(template, defaultLanguage, rawComposition, compositionBuilderContext, deltaValues), JsonNode.class);
+        return updateRawComposition(template, defaultLanguage, objectMapper.readTree(rawComposition), compositionBuilderContext, deltaValues);
+    }
+
+    /**
+     * Converts RAW composition to the FLAT composition. Implementations working on json trees should override this method,
+     * the default implementation serializes the composition and calls the json string variant.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param rawComposition  RAW composition
+     * @return FLAT composition
+     */
+    default Map<String, Object> convertRawToFlat(String template, String defaultLanguage, JsonNode rawComposition) throws Exception {
+        return ConverterJsonMapper.toFlat(convertRawToFlat(template, defaultLanguage, ConverterJsonMapper.toJson(rawComposition)));
+    }
+
+    /**
+     * Converts RAW composition to the STRUCTURED composition. Implementations working on json trees should override this
+     * method, the default implementation serializes the composition and calls the json string variant.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param rawComposition  RAW composition
+     * @return STRUCTURED composition
+     */
+    default JsonNode convertRawToStructured(String template, String defaultLanguage, JsonNode rawComposition) throws Exception {
+        return ConverterJsonMapper.toTree(convertRawToStructured(template, defaultLanguage, ConverterJsonMapper.toJson(rawComposition)));
+    }
+
+    /**
+     * Converts FLAT composition to the RAW composition. Implementations working on json trees should override this method,
+     * the default implementation serializes the composition and calls the json string variant.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param flatComposition FLAT composition
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return RAW composition
+     */
+    default JsonNode convertFlatToRaw(
+            String template,
+            String defaultLanguage,
+            Map<String, Object> flatComposition,
+            Map<String, Object> compositionBuilderContext) throws Exception {
+        return ConverterJsonMapper.toTree(convertFlatToRaw(template, defaultLanguage, ConverterJsonMapper.toJson(flatComposition), compositionBuilderContext));
+    }
+
+    /**
+     * Converts FLAT composition to the STRUCTURED composition. Implementations working on json trees should override this
+     * method, the default implementation serializes the composition and calls the json string variant.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param flatComposition FLAT composition
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return STRUCTURED composition
+     */
+    default JsonNode convertFlatToStructured(
+            String template,
+            String defaultLanguage,
+            Map<String, Object> flatComposition,
+            Map<String, Object> compositionBuilderContext) throws Exception {
+        return ConverterJsonMapper.toTree(convertFlatToStructured(template, defaultLanguage, ConverterJsonMapper.toJson(flatComposition), compositionBuilderContext));
+    }
+
+    /**
+     * Converts STRUCTURED composition to the RAW composition. Implementations working on json trees should override this
+     * method, the default implementation serializes the composition and calls the json string variant.
+     *
+     * @param template              Template xml string
+     * @param defaultLanguage       Template default language
+     * @param structuredComposition STRUCTURED composition
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return RAW composition
+     */
+    default JsonNode convertStructuredToRaw(
+            String template,
+            String defaultLanguage,
+            JsonNode structuredComposition,
+            Map<String, Object> compositionBuilderContext) throws Exception {
+        return ConverterJsonMapper.toTree(convertStructuredToRaw(template, defaultLanguage, ConverterJsonMapper.toJson(structuredComposition), compositionBuilderContext));
+    }
+
+    /**
+     * Converts STRUCTURED composition to the FLAT composition. Implementations working on json trees should override this
+     * method, the default implementation serializes the composition and calls the json string variant.
+     *
+     * @param template              Template xml string
+     * @param defaultLanguage       Template default language
+     * @param structuredComposition STRUCTURED composition
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return FLAT composition
+     */
+    default Map<String, Object> convertStructuredToFlat(
+            String template,
+            String defaultLanguage,
+            JsonNode structuredComposition,
+            Map<String, Object> compositionBuilderContext) throws Exception {
+        return ConverterJsonMapper.toFlat(convertStructuredToFlat(template, defaultLanguage, ConverterJsonMapper.toJson(structuredComposition), compositionBuilderContext));
+    }
+
+    /**
+     * Update a RAW composition with values of FLAT composition. Implementations working on json trees should override this
+     * method, the default implementation serializes the composition and calls the json string variant.
+     *
+     * @param template              Template xml string
+     * @param defaultLanguage       Template default language
+     * @param rawComposition        RAW composition
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param deltaValues                 Flat composition Map containing the values to be added
+     * @return RAW composition
+     */
+    default JsonNode updateRawComposition(
+            String template,
+            String defaultLanguage,
+            JsonNode rawComposition,
+            Map<String, Object> compositionBuilderContext,
+            Map<String, Object> deltaValues) throws Exception {
+        return ConverterJsonMapper.toTree(
+                updateRawComposition(template, defaultLanguage, ConverterJsonMapper.toJson(rawComposition), compositionBuilderContext, deltaValues));
+    }
+
+    /**
+     * Converts RAW composition read from the parser to the FLAT composition written to the generator.
+     * The parser and the generator are not closed.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param rawComposition  Parser positioned before the RAW composition json
+     * @param flatComposition Generator the FLAT composition json is written to
+     */
+    default void convertRawToFlat(
+            String template,
+            String defaultLanguage,
+            JsonParser rawComposition,
+            JsonGenerator flatComposition) throws Exception {
+        ConverterJsonMapper.write(flatComposition, convertRawToFlat(template, defaultLanguage, ConverterJsonMapper.readTree(rawComposition)));
+    }
+
+    /**
+     * Converts RAW composition read from the input stream to the FLAT composition written to the output stream.
+     * The streams are not closed.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param rawComposition  Input stream containing the RAW composition json
+     * @param flatComposition Output stream the FLAT composition json is written to
+     */
+    default void convertRawToFlat(
+            String template,
+            String defaultLanguage,
+            InputStream rawComposition,
+            OutputStream flatComposition) throws Exception {
+        try (JsonParser parser = ConverterJsonMapper.createParser(rawComposition); JsonGenerator generator = ConverterJsonMapper.createGenerator(flatComposition)) {
+            convertRawToFlat(template, defaultLanguage, parser, generator);
+        }
+    }
+
+    /**
+     * Converts RAW composition read from the parser to the STRUCTURED composition written to the generator.
+     * The parser and the generator are not closed.
+     *
+     * @param template              Template xml string
+     * @param defaultLanguage       Template default language
+     * @param rawComposition        Parser positioned before the RAW composition json
+     * @param structuredComposition Generator the STRUCTURED composition json is written to
+     */
+    default void convertRawToStructured(
+            String template,
+            String defaultLanguage,
+            JsonParser rawComposition,
+            JsonGenerator structuredComposition) throws Exception {
+        ConverterJsonMapper.write(structuredComposition, convertRawToStructured(template, defaultLanguage, ConverterJsonMapper.readTree(rawComposition)));
+    }
+
+    /**
+     * Converts RAW composition read from the input stream to the STRUCTURED composition written to the output stream.
+     * The streams are not closed.
+     *
+     * @param template              Template xml string
+     * @param defaultLanguage       Template default language
+     * @param rawComposition        Input stream containing the RAW composition json
+     * @param structuredComposition Output stream the STRUCTURED composition json is written to
+     */
+    default void convertRawToStructured(
+            String template,
+            String defaultLanguage,
+            InputStream rawComposition,
+            OutputStream structuredComposition) throws Exception {
+        try (JsonParser parser = ConverterJsonMapper.createParser(rawComposition); JsonGenerator generator = ConverterJsonMapper.createGenerator(structuredComposition)) {
+            convertRawToStructured(template, defaultLanguage, parser, generator);
+        }
+    }
+
+    /**
+     * Converts FLAT composition read from the parser to the RAW composition written to the generator.
+     * The parser and the generator are not closed.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param flatComposition Parser positioned before the FLAT composition json
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param rawComposition  Generator the RAW composition json is written to
+     */
+    default void convertFlatToRaw(
+            String template,
+            String defaultLanguage,
+            JsonParser flatComposition,
+            Map<String, Object> compositionBuilderContext,
+            JsonGenerator rawComposition) throws Exception {
+        ConverterJsonMapper.write(rawComposition, convertFlatToRaw(template, defaultLanguage, ConverterJsonMapper.readFlat(flatComposition), compositionBuilderContext));
+    }
+
+    /**
+     * Converts FLAT composition read from the input stream to the RAW composition written to the output stream.
+     * The streams are not closed.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param flatComposition Input stream containing the FLAT composition json
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param rawComposition  Output stream the RAW composition json is written to
+     */
+    default void convertFlatToRaw(
+            String template,
+            String defaultLanguage,
+            InputStream flatComposition,
+            Map<String, Object> compositionBuilderContext,
+            OutputStream rawComposition) throws Exception {
+        try (JsonParser parser = ConverterJsonMapper.createParser(flatComposition); JsonGenerator generator = ConverterJsonMapper.createGenerator(rawComposition)) {
+            convertFlatToRaw(template, defaultLanguage, parser, compositionBuilderContext, generator);
+        }
+    }
+
+    /**
+     * Converts FLAT composition read from the parser to the STRUCTURED composition written to the generator.
+     * The parser and the generator are not closed.
+     *
+     * @param template              Template xml string
+     * @param defaultLanguage       Template default language
+     * @param flatComposition       Parser positioned before the FLAT composition json
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param structuredComposition Generator the STRUCTURED composition json is written to
+     */
+    default void convertFlatToStructured(
+            String template,
+            String defaultLanguage,
+            JsonParser flatComposition,
+            Map<String, Object> compositionBuilderContext,
+            JsonGenerator structuredComposition) throws Exception {
+        ConverterJsonMapper.write(structuredComposition, convertFlatToStructured(template, defaultLanguage, ConverterJsonMapper.readFlat(flatComposition), compositionBuilderContext));
+    }
+
+    /**
+     * Converts FLAT composition read from the input stream to the STRUCTURED composition written to the output stream.
+     * The streams are not closed.
+     *
+     * @param template              Template xml string
+     * @param defaultLanguage       Template default language
+     * @param flatComposition       Input stream containing the FLAT composition json
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param structuredComposition Output stream the STRUCTURED composition json is written to
+     */
+    default void convertFlatToStructured(
+            String template,
+            String defaultLanguage,
+            InputStream flatComposition,
+            Map<String, Object> compositionBuilderContext,
+            OutputStream structuredComposition) throws Exception {
+        try (JsonParser parser = ConverterJsonMapper.createParser(flatComposition); JsonGenerator generator = ConverterJsonMapper.createGenerator(structuredComposition)) {
+            convertFlatToStructured(template, defaultLanguage, parser, compositionBuilderContext, generator);
+        }
+    }
+
+    /**
+     * Converts STRUCTURED composition read from the parser to the RAW composition written to the generator.
+     * The parser and the generator are not closed.
+     *
+     * @param template              Template xml string
+     * @param defaultLanguage       Template default language
+     * @param structuredComposition Parser positioned before the STRUCTURED composition json
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param rawComposition        Generator the RAW composition json is written to
+     */
+    default void convertStructuredToRaw(
+            String template,
+            String defaultLanguage,
+            JsonParser structuredComposition,
+            Map<String, Object> compositionBuilderContext,
+            JsonGenerator rawComposition) throws Exception {
+        ConverterJsonMapper.write(rawComposition, convertStructuredToRaw(template, defaultLanguage, ConverterJsonMapper.readTree(structuredComposition), compositionBuilderContext));
+    }
+
+    /**
+     * Converts STRUCTURED composition read from the input stream to the RAW composition written to the output stream.
+     * The streams are not closed.
+     *
+     * @param template              Template xml string
+     * @param defaultLanguage       Template default language
+     * @param structuredComposition Input stream containing the STRUCTURED composition json
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param rawComposition        Output stream the RAW composition json is written to
+     */
+    default void convertStructuredToRaw(
+            String template,
+            String defaultLanguage,
+            InputStream structuredComposition,
+            Map<String, Object> compositionBuilderContext,
+            OutputStream rawComposition) throws Exception {
+        try (JsonParser parser = ConverterJsonMapper.createParser(structuredComposition); JsonGenerator generator = ConverterJsonMapper.createGenerator(rawComposition)) {
+            convertStructuredToRaw(template, defaultLanguage, parser, compositionBuilderContext, generator);
+        }
+    }
+
+    /**
+     * Converts STRUCTURED composition read from the parser to the FLAT composition written to the generator.
+     * The parser and the generator are not closed.
+     *
+     * @param template              Template xml string
+     * @param defaultLanguage       Template default language
+     * @param structuredComposition Parser positioned before the STRUCTURED composition json
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param flatComposition       Generator the FLAT composition json is written to
+     */
+    default void convertStructuredToFlat(
+            String template,
+            String defaultLanguage,
+            JsonParser structuredComposition,
+            Map<String, Object> compositionBuilderContext,
+            JsonGenerator flatComposition) throws Exception {
+        ConverterJsonMapper.write(flatComposition, convertStructuredToFlat(template, defaultLanguage, ConverterJsonMapper.readTree(structuredComposition), compositionBuilderContext));
+    }
+
+    /**
+     * Converts STRUCTURED composition read from the input stream to the FLAT composition written to the output stream.
+     * The streams are not closed.
+     *
+     * @param template              Template xml string
+     * @param defaultLanguage       Template default language
+     * @param structuredComposition Input stream containing the STRUCTURED composition json
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param flatComposition       Output stream the FLAT composition json is written to
+     */
+    default void convertStructuredToFlat(
+            String template,
+            String defaultLanguage,
+            InputStream structuredComposition,
+            Map<String, Object> compositionBuilderContext,
+            OutputStream flatComposition) throws Exception {
+        try (JsonParser parser = ConverterJsonMapper.createParser(structuredComposition); JsonGenerator generator = ConverterJsonMapper.createGenerator(flatComposition)) {
+            convertStructuredToFlat(template, defaultLanguage, parser, compositionBuilderContext, generator);
+        }
+    }
+
+    /**
+     * Update a RAW composition read from the parser with values of FLAT composition and writes the result to the generator.
+     * The parser and the generator are not closed.
+     *
+     * @param template           Template xml string
+     * @param defaultLanguage    Template default language
+     * @param rawComposition     Parser positioned before the RAW composition json
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param deltaValues                 Flat composition Map containing the values to be added
+     * @param updatedComposition Generator the RAW composition json is written to
+     */
+    default void updateRawComposition(
+            String template,
+            String defaultLanguage,
+            JsonParser rawComposition,
+            Map<String, Object> compositionBuilderContext,
+            Map<String, Object> deltaValues,
+            JsonGenerator updatedComposition) throws Exception {
+        ConverterJsonMapper.write(updatedComposition, updateRawComposition(template, defaultLanguage, ConverterJsonMapper.readTree(rawComposition), compositionBuilderContext, deltaValues));
+    }
+
+    /**
+     * Update a RAW composition read from the input stream with values of FLAT composition and writes the result to the output stream.
+     * The streams are not closed.
+     *
+     * @param template           Template xml string
+     * @param defaultLanguage    Template default language
+     * @param rawComposition     Input stream containing the RAW composition json
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param deltaValues                 Flat composition Map containing the values to be added
+     * @param updatedComposition Output stream the RAW composition json is written to
+     */
+    default void updateRawComposition(
+            String template,
+            String defaultLanguage,
+            InputStream rawComposition,
+            Map<String, Object> compositionBuilderContext,
+            Map<String, Object> deltaValues,
+            OutputStream updatedComposition) throws Exception {
+        try (JsonParser parser = ConverterJsonMapper.createParser(rawComposition); JsonGenerator generator = ConverterJsonMapper.createGenerator(updatedComposition)) {
+            updateRawComposition(template, defaultLanguage, parser, compositionBuilderContext, deltaValues, generator);
+        }
+    }
+
+    /**
+     * Asynchronously converts RAW composition json string to the FLAT composition json string.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param rawComposition  RAW composition json string
+     * @param executor        Executor the conversion runs on
+     * @return {@code CompletableFuture} completed with the FLAT composition json string
+     */
+    default CompletableFuture<String> convertRawToFlatAsync(
+            String template,
+            String defaultLanguage,
+            String rawComposition,
+            Executor executor) {
+        return AsyncCalls.supplyAsync(() -> convertRawToFlat(template, defaultLanguage, rawComposition), executor);
+    }
+
+    /**
+     * Asynchronously converts RAW composition json string to the STRUCTURED composition json string.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param rawComposition  RAW composition json string
+     * @param executor        Executor the conversion runs on
+     * @return {@code CompletableFuture} completed with the STRUCTURED composition json string
+     */
+    default CompletableFuture<String> convertRawToStructuredAsync(
+            String template,
+            String defaultLanguage,
+            String rawComposition,
+            Executor executor) {
+        return AsyncCalls.supplyAsync(() -> convertRawToStructured(template, defaultLanguage, rawComposition), executor);
+    }
+
+    /**
+     * Asynchronously converts FLAT composition json string to the RAW composition json string.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param flatComposition FLAT composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param executor        Executor the conversion runs on
+     * @return {@code CompletableFuture} completed with the RAW composition json string
+     */
+    default CompletableFuture<String> convertFlatToRawAsync(
+            String template,
+            String defaultLanguage,
+            String flatComposition,
+            Map<String, Object> compositionBuilderContext,
+            Executor executor) {
+        return AsyncCalls.supplyAsync(() -> convertFlatToRaw(template, defaultLanguage, flatComposition, compositionBuilderContext), executor);
+    }
+
+    /**
+     * Asynchronously converts FLAT composition json string to the STRUCTURED composition json string.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param flatComposition FLAT composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param executor        Executor the conversion runs on
+     * @return {@code CompletableFuture} completed with the STRUCTURED composition json string
+     */
+    default CompletableFuture<String> convertFlatToStructuredAsync(
+            String template,
+            String defaultLanguage,
+            String flatComposition,
+            Map<String, Object> compositionBuilderContext,
+            Executor executor) {
+        return AsyncCalls.supplyAsync(() -> convertFlatToStructured(template, defaultLanguage, flatComposition, compositionBuilderContext), executor);
+    }
+
+    /**
+     * Asynchronously converts STRUCTURED composition json string to the RAW composition json string.
+     *
+     * @param template              Template xml string
+     * @param defaultLanguage       Template default language
+     * @param structuredComposition STRUCTURED composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param executor              Executor the conversion runs on
+     * @return {@code CompletableFuture} completed with the RAW composition json string
+     */
+    default CompletableFuture<String> convertStructuredToRawAsync(
+            String template,
+            String defaultLanguage,
+            String structuredComposition,
+            Map<String, Object> compositionBuilderContext,
+            Executor executor) {
+        return AsyncCalls.supplyAsync(() -> convertStructuredToRaw(template, defaultLanguage, structuredComposition, compositionBuilderContext), executor);
+    }
+
+    /**
+     * Asynchronously converts STRUCTURED composition json string to the FLAT composition json string.
+     *
+     * @param template              Template xml string
+     * @param defaultLanguage       Template default language
+     * @param structuredComposition STRUCTURED composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param executor              Executor the conversion runs on
+     * @return {@code CompletableFuture} completed with the FLAT composition json string
+     */
+    default CompletableFuture<String> convertStructuredToFlatAsync(
+            String template,
+            String defaultLanguage,
+            String structuredComposition,
+            Map<String, Object> compositionBuilderContext,
+            Executor executor) {
+        return AsyncCalls.supplyAsync(() -> convertStructuredToFlat(template, defaultLanguage, structuredComposition, compositionBuilderContext), executor);
+    }
+
+    /**
+     * Asynchronously update a RAW composition json string with values of FLAT composition json string.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param rawComposition  RAW composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param deltaValues                 Flat composition Map containing the values to be added
+     * @param executor        Executor the conversion runs on
+     * @return {@code CompletableFuture} completed with the RAW composition json string
+     */
+    default CompletableFuture<String> updateRawCompositionAsync(
+            String template,
+            String defaultLanguage,
+            String rawComposition,
+            Map<String, Object> compositionBuilderContext,
+            Map<String, Object> deltaValues,
+            Executor executor) {
+        return AsyncCalls.supplyAsync(() -> updateRawComposition(template, defaultLanguage, rawComposition, compositionBuilderContext, deltaValues), executor);
+    }
+
+    /**
+     * Converts FLAT composition json string to the RAW composition json string.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param flatComposition FLAT composition json string
+     * @param compositionBuilderContext Typed default values that will be used when composition is built
+     * @return RAW composition json string
+     */
+    default String convertFlatToRawWithContext(
+            String template,
+            String defaultLanguage,
+            String flatComposition,
+            CompositionBuilderContext compositionBuilderContext) throws Exception {
+        return convertFlatToRaw(template, defaultLanguage, flatComposition, compositionBuilderContext.toMap());
+    }
+
+    /**
+     * Converts FLAT composition json string to the STRUCTURED composition json string.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param flatComposition FLAT composition json string
+     * @param compositionBuilderContext Typed default values that will be used when composition is built
+     * @return STRUCTURED composition json string
+     */
+    default String convertFlatToStructuredWithContext(
+            String template,
+            String defaultLanguage,
+            String flatComposition,
+            CompositionBuilderContext compositionBuilderContext) throws Exception {
+        return convertFlatToStructured(template, defaultLanguage, flatComposition, compositionBuilderContext.toMap());
+    }
+
+    /**
+     * Converts STRUCTURED composition json string to the RAW composition json string.
+     *
+     * @param template              Template xml string
+     * @param defaultLanguage       Template default language
+     * @param structuredComposition STRUCTURED composition json string
+     * @param compositionBuilderContext Typed default values that will be used when composition is built
+     * @return RAW composition json string
+     */
+    default String convertStructuredToRawWithContext(
+            String template,
+            String defaultLanguage,
+            String structuredComposition,
+            CompositionBuilderContext compositionBuilderContext) throws Exception {
+        return convertStructuredToRaw(template, defaultLanguage, structuredComposition, compositionBuilderContext.toMap());
+    }
+
+    /**
+     * Converts STRUCTURED composition json string to the FLAT composition json string.
+     *
+     * @param template              Template xml string
+     * @param defaultLanguage       Template default language
+     * @param structuredComposition STRUCTURED composition json string
+     * @param compositionBuilderContext Typed default values that will be used when composition is built
+     * @return FLAT composition json string
+     */
+    default String convertStructuredToFlatWithContext(
+            String template,
+            String defaultLanguage,
+            String structuredComposition,
+            CompositionBuilderContext compositionBuilderContext) throws Exception {
+        return convertStructuredToFlat(template, defaultLanguage, structuredComposition, compositionBuilderContext.toMap());
+    }
+
+    /**
+     * Update a RAW composition json string with values of FLAT composition json string.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param rawComposition  RAW composition json string
+     * @param compositionBuilderContext Typed default values that will be used when composition is built
+     * @param deltaValues                 Flat composition Map containing the values to be added
+     * @return RAW composition json string
+     */
+    default String updateRawCompositionWithContext(
+            String template,
+            String defaultLanguage,
+            String rawComposition,
+            CompositionBuilderContext compositionBuilderContext,
+            Map<String, Object> deltaValues) throws Exception {
+        return updateRawComposition(template, defaultLanguage, rawComposition, compositionBuilderContext.toMap(), deltaValues);
+    }
+
+    /**
+     * Returns the validator used by the default validated conversions. The default implementation loads the first
+     * {@link CompositionValidator} registered with {@link ServiceLoader} in the class loader of the converter, so the converter
+     * and the validator of one implementation are used together. The validator is loaded once per converter class and shared
+     * by all its instances, so it has to be thread safe. Implementations that hold their own validator instance should return
+     * it here; implementations that validate while converting override the validated conversions instead.
+     *
+     * @return {@code CompositionValidator} of the implementation
+     */
+    default CompositionValidator getCompositionValidator() {
+        return CompositionValidators.get(getClass());
+    }
+
+    /**
+     * Converts FLAT composition json string to the RAW composition json string and validates the RAW composition.
+     * <p>
+     * The default implementation converts the composition and then validates it with {@link #getCompositionValidator()}, so
+     * the RAW composition is still serialized, parsed again and the template is traversed twice, as in the two-step flow.
+     * Implementations that build and validate the RAW composition in a single traversal of the template should override this
+     * method.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param flatComposition FLAT composition json string
+     * @param compositionBuilderContext Default values that will be used when composition is built
+     * @param validationOptions Validation options
+     * @return RAW composition json string with its {@code List} of {@code ValidationErrorDto}
+     */
+    default ValidatedComposition convertFlatToRawValidated(
+            String template,
+            String defaultLanguage,
+            String flatComposition,
+            Map<String, Object> compositionBuilderContext,
+            ValidationOptions validationOptions) throws Exception {
+        String rawComposition = convertFlatToRaw(template, defaultLanguage, flatComposition, compositionBuilderContext);
+        return new ValidatedComposition(rawComposition, getCompositionValidator().validate(template, rawComposition, validationOptions));
+    }
+
+    /**
+     * Converts FLAT composition json string to the RAW composition json string and validates the RAW composition.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param flatComposition FLAT composition json string
+     * @param compositionBuilderContext Typed default values that will be used when composition is built
+     * @param validationOptions Validation options
+     * @return RAW composition json string with its {@code List} of {@code ValidationErrorDto}
+     */
+    default ValidatedComposition convertFlatToRawValidatedWithContext(
+            String template,
+            String defaultLanguage,
+            String flatComposition,
+            CompositionBuilderContext compositionBuilderContext,
+            ValidationOptions validationOptions) throws Exception {
+        return convertFlatToRawValidated(template, defaultLanguage, flatComposition, compositionBuilderContext.toMap(), validationOptions);
+    }
+
+    /**
+     * Updates RAW composition json string with FLAT delta values and validates the parts of the composition touched by the delta
+     * with {@link CompositionValidator#validateDelta(String, String, java.util.Set)} of {@link #getCompositionValidator()}. The
+     * returned errors are the same as the ones of a full validation of the updated composition.
+     * <p>
+     * The default implementation updates the composition and then validates the updated json string, so it does the same
+     * work as the two-step flow. Implementations that validate while applying the delta should override this method.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param rawComposition  RAW composition json string
+     * @param compositionBuilderContext Default values that will be used when composition is built
+     * @param deltaValues     FLAT delta values
+     * @return Updated RAW composition json string with its {@code List} of {@code ValidationErrorDto}
+     */
+    default ValidatedComposition updateRawCompositionValidated(
+            String template,
+            String defaultLanguage,
+            String rawComposition,
+            Map<String, Object> compositionBuilderContext,
+            Map<String, Object> deltaValues) throws Exception {
+        String updatedComposition = updateRawComposition(template, defaultLanguage, rawComposition, compositionBuilderContext, deltaValues);
+        return new ValidatedComposition(
+                updatedComposition,
+                getCompositionValidator().validateDelta(template, updatedComposition, deltaValues.keySet()));
+    }
+
+    /**
+     * Prepares the template for conversions. The returned handle can be passed to the conversion methods instead of the
+     * template xml string and the default language.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @return {@link CompiledTemplate} handle
+     */
+    default CompiledTemplate compile(String template, String defaultLanguage) throws Exception {
+        return new DefaultCompiledTemplate(template, defaultLanguage);
+    }
+
+    /**
+     * Converts RAW composition json string to the FLAT composition json string.
+     *
+     * @param compiledTemplate Template handle returned by {@link #compile(String, String)}
+     * @param rawComposition   RAW composition json string
+     * @return FLAT composition json string
+     */
+    default String convertRawToFlat(CompiledTemplate compiledTemplate, String rawComposition) throws Exception {
+        return convertRawToFlat(DefaultCompiledTemplate.getTemplate(compiledTemplate), compiledTemplate.getDefaultLanguage(), rawComposition);
+    }
+
+    /**
+     * Converts RAW composition json string to the STRUCTURED composition json string.
+     *
+     * @param compiledTemplate Template handle returned by {@link #compile(String, String)}
+     * @param rawComposition   RAW composition json string
+     * @return STRUCTURED composition json string
+     */
+    default String convertRawToStructured(CompiledTemplate compiledTemplate, String rawComposition) throws Exception {
+        return convertRawToStructured(DefaultCompiledTemplate.getTemplate(compiledTemplate), compiledTemplate.getDefaultLanguage(), rawComposition);
+    }
+
+    /**
+     * Converts FLAT composition json string to the RAW composition json string.
+     *
+     * @param compiledTemplate Template handle returned by {@link #compile(String, String)}
+     * @param flatComposition FLAT composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return RAW composition json string
+     */
+    default String convertFlatToRaw(CompiledTemplate compiledTemplate, String flatComposition, Map<String, Object> compositionBuilderContext) throws Exception {
+        return convertFlatToRaw(DefaultCompiledTemplate.getTemplate(compiledTemplate), compiledTemplate.getDefaultLanguage(), flatComposition, compositionBuilderContext);
+    }
+
+    /**
+     * Converts FLAT composition json string to the STRUCTURED composition json string.
+     *
+     * @param compiledTemplate Template handle returned by {@link #compile(String, String)}
+     * @param flatComposition FLAT composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return STRUCTURED composition json string
+     */
+    default String convertFlatToStructured(CompiledTemplate compiledTemplate, String flatComposition, Map<String, Object> compositionBuilderContext) throws Exception {
+        return convertFlatToStructured(DefaultCompiledTemplate.getTemplate(compiledTemplate), compiledTemplate.getDefaultLanguage(), flatComposition, compositionBuilderContext);
+    }
+
+    /**
+     * Converts STRUCTURED composition json string to the RAW composition json string.
+     *
+     * @param compiledTemplate      Template handle returned by {@link #compile(String, String)}
+     * @param structuredComposition STRUCTURED composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return RAW composition json string
+     */
+    default String convertStructuredToRaw(CompiledTemplate compiledTemplate, String structuredComposition, Map<String, Object> compositionBuilderContext) throws Exception {
+        return convertStructuredToRaw(DefaultCompiledTemplate.getTemplate(compiledTemplate), compiledTemplate.getDefaultLanguage(), structuredComposition, compositionBuilderContext);
+    }
+
+    /**
+     * Converts STRUCTURED composition json string to the FLAT composition json string.
+     *
+     * @param compiledTemplate      Template handle returned by {@link #compile(String, String)}
+     * @param structuredComposition STRUCTURED composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return FLAT composition json string
+     */
+    default String convertStructuredToFlat(CompiledTemplate compiledTemplate, String structuredComposition, Map<String, Object> compositionBuilderContext) throws Exception {
+        return convertStructuredToFlat(DefaultCompiledTemplate.getTemplate(compiledTemplate), compiledTemplate.getDefaultLanguage(), structuredComposition, compositionBuilderContext);
+    }
+
+    /**
+     * Update a RAW composition json string with values of FLAT composition json string.
+     *
+     * @param compiledTemplate      Template handle returned by {@link #compile(String, String)}
+     * @param rawComposition        RAW composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param deltaValues                 Flat composition Map containing the values to be added
+     * @return RAW composition json string
+     */
+    default String updateRawComposition(
+            CompiledTemplate compiledTemplate,
+            String rawComposition,
+            Map<String, Object> compositionBuilderContext,
+            Map<String, Object> deltaValues) throws Exception {
+        return updateRawComposition(
+                DefaultCompiledTemplate.getTemplate(compiledTemplate),
+                compiledTemplate.getDefaultLanguage(),
+                rawComposition,
+                compositionBuilderContext,
+                deltaValues);
+    }
+
+    /**
+     * Converts FLAT composition json strings sharing the template, language and context to RAW composition json strings.
+     * A failed conversion does not stop the batch, its exception is returned in the matching result.
+     *
+     * @param template         Template xml string
+     * @param defaultLanguage  Template default language
+     * @param flatCompositions FLAT composition json strings
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return {@code List} of {@code ConversionResult} holding RAW composition json strings, in the order of the input
+     */
+    default List<ConversionResult<String>> convertFlatToRawBatch(
+            String template,
+            String defaultLanguage,
+            Iterable<String> flatCompositions,
+            Map<String, Object> compositionBuilderContext) throws Exception {
+        CompiledTemplate compiledTemplate = compile(template, defaultLanguage);
+        List<ConversionResult<String>> results = new ArrayList<>();
+        for (String flatComposition : flatCompositions) {
+            try {
+                results.add(ConversionResult.success(convertFlatToRaw(compiledTemplate, flatComposition, compositionBuilderContext)));
+            } catch (Exception e) {
+                results.add(ConversionResult.failure(e));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Converts RAW composition json strings sharing the template and language to FLAT composition json strings.
+     * A failed conversion does not stop the batch, its exception is returned in the matching result.
+     *
+     * @param template        Template xml string
+     * @param defaultLanguage Template default language
+     * @param rawCompositions RAW composition json strings
+     * @return {@code List} of {@code ConversionResult} holding FLAT composition json strings, in the order of the input
+     */
+    default List<ConversionResult<String>> convertRawToFlatBatch(String template, String defaultLanguage, Iterable<String> rawCompositions) throws Exception {
+        CompiledTemplate compiledTemplate = compile(template, defaultLanguage);
+        List<ConversionResult<String>> results = new ArrayList<>();
+        for (String rawComposition : rawCompositions) {
+            try {
+                results.add(ConversionResult.success(convertRawToFlat(compiledTemplate, rawComposition)));
+            } catch (Exception e) {
+                results.add(ConversionResult.failure(e));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Converts RAW composition json string to the FLAT composition json string.
+     *
+     * @param templateRegistry Registry holding the template
+     * @param templateId       Template id
+     * @param defaultLanguage  Template default language
+     * @param rawComposition   RAW composition json string
+     * @return FLAT composition json string
+     */
+    default String convertRawToFlat(TemplateRegistry templateRegistry, String templateId, String defaultLanguage, String rawComposition) throws Exception {
+        return convertRawToFlat(templateRegistry, templateId, null, defaultLanguage, rawComposition);
+    }
+
+    /**
+     * Converts RAW composition json string to the FLAT composition json string.
+     *
+     * @param templateRegistry Registry holding the template
+     * @param templateId       Template id
+     * @param version          Template version, {@code null} for the template registered without one
+     * @param defaultLanguage  Template default language
+     * @param rawComposition   RAW composition json string
+     * @return FLAT composition json string
+     */
+    default String convertRawToFlat(TemplateRegistry templateRegistry, String templateId, String version, String defaultLanguage, String rawComposition) throws Exception {
+        return convertRawToFlat(templateRegistry.lookup(templateId, version), defaultLanguage, rawComposition);
+    }
+
+    /**
+     * Converts RAW composition json string to the STRUCTURED composition json string.
+     *
+     * @param templateRegistry Registry holding the template
+     * @param templateId       Template id
+     * @param defaultLanguage  Template default language
+     * @param rawComposition   RAW composition json string
+     * @return STRUCTURED composition json string
+     */
+    default String convertRawToStructured(TemplateRegistry templateRegistry, String templateId, String defaultLanguage, String rawComposition) throws Exception {
+        return convertRawToStructured(templateRegistry, templateId, null, defaultLanguage, rawComposition);
+    }
+
+    /**
+     * Converts RAW composition json string to the STRUCTURED composition json string.
+     *
+     * @param templateRegistry Registry holding the template
+     * @param templateId       Template id
+     * @param version          Template version, {@code null} for the template registered without one
+     * @param defaultLanguage  Template default language
+     * @param rawComposition   RAW composition json string
+     * @return STRUCTURED composition json string
+     */
+    default String convertRawToStructured(TemplateRegistry templateRegistry, String templateId, String version, String defaultLanguage, String rawComposition) throws Exception {
+        return convertRawToStructured(templateRegistry.lookup(templateId, version), defaultLanguage, rawComposition);
+    }
+
+    /**
+     * Converts FLAT composition json string to the RAW composition json string.
+     *
+     * @param templateRegistry Registry holding the template
+     * @param templateId       Template id
+     * @param defaultLanguage  Template default language
+     * @param flatComposition FLAT composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return RAW composition json string
+     */
+    default String convertFlatToRaw(
+            TemplateRegistry templateRegistry,
+            String templateId,
+            String defaultLanguage,
+            String flatComposition,
+            Map<String, Object> compositionBuilderContext) throws Exception {
+        return convertFlatToRaw(templateRegistry, templateId, null, defaultLanguage, flatComposition, compositionBuilderContext);
+    }
+
+    /**
+     * Converts FLAT composition json string to the RAW composition json string.
+     *
+     * @param templateRegistry Registry holding the template
+     * @param templateId       Template id
+     * @param version          Template version, {@code null} for the template registered without one
+     * @param defaultLanguage  Template default language
+     * @param flatComposition FLAT composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return RAW composition json string
+     */
+    default String convertFlatToRaw(
+            TemplateRegistry templateRegistry,
+            String templateId,
+            String version,
+            String defaultLanguage,
+            String flatComposition,
+            Map<String, Object> compositionBuilderContext) throws Exception {
+        return convertFlatToRaw(templateRegistry.lookup(templateId, version), defaultLanguage, flatComposition, compositionBuilderContext);
+    }
+
+    /**
+     * Converts FLAT composition json string to the STRUCTURED composition json string.
+     *
+     * @param templateRegistry Registry holding the template
+     * @param templateId       Template id
+     * @param defaultLanguage  Template default language
+     * @param flatComposition FLAT composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return STRUCTURED composition json string
+     */
+    default String convertFlatToStructured(
+            TemplateRegistry templateRegistry,
+            String templateId,
+            String defaultLanguage,
+            String flatComposition,
+            Map<String, Object> compositionBuilderContext) throws Exception {
+        return convertFlatToStructured(templateRegistry, templateId, null, defaultLanguage, flatComposition, compositionBuilderContext);
+    }
+
+    /**
+     * Converts FLAT composition json string to the STRUCTURED composition json string.
+     *
+     * @param templateRegistry Registry holding the template
+     * @param templateId       Template id
+     * @param version          Template version, {@code null} for the template registered without one
+     * @param defaultLanguage  Template default language
+     * @param flatComposition FLAT composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return STRUCTURED composition json string
+     */
+    default String convertFlatToStructured(
+            TemplateRegistry templateRegistry,
+            String templateId,
+            String version,
+            String defaultLanguage,
+            String flatComposition,
+            Map<String, Object> compositionBuilderContext) throws Exception {
+        return convertFlatToStructured(templateRegistry.lookup(templateId, version), defaultLanguage, flatComposition, compositionBuilderContext);
+    }
+
+    /**
+     * Converts STRUCTURED composition json string to the RAW composition json string.
+     *
+     * @param templateRegistry      Registry holding the template
+     * @param templateId            Template id
+     * @param defaultLanguage       Template default language
+     * @param structuredComposition STRUCTURED composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return RAW composition json string
+     */
+    default String convertStructuredToRaw(
+            TemplateRegistry templateRegistry,
+            String templateId,
+            String defaultLanguage,
+            String structuredComposition,
+            Map<String, Object> compositionBuilderContext) throws Exception {
+        return convertStructuredToRaw(templateRegistry, templateId, null, defaultLanguage, structuredComposition, compositionBuilderContext);
+    }
+
+    /**
+     * Converts STRUCTURED composition json string to the RAW composition json string.
+     *
+     * @param templateRegistry      Registry holding the template
+     * @param templateId            Template id
+     * @param version               Template version, {@code null} for the template registered without one
+     * @param defaultLanguage       Template default language
+     * @param structuredComposition STRUCTURED composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return RAW composition json string
+     */
+    default String convertStructuredToRaw(
+            TemplateRegistry templateRegistry,
+            String templateId,
+            String version,
+            String defaultLanguage,
+            String structuredComposition,
+            Map<String, Object> compositionBuilderContext) throws Exception {
+        return convertStructuredToRaw(templateRegistry.lookup(templateId, version), defaultLanguage, structuredComposition, compositionBuilderContext);
+    }
+
+    /**
+     * Converts STRUCTURED composition json string to the FLAT composition json string.
+     *
+     * @param templateRegistry      Registry holding the template
+     * @param templateId            Template id
+     * @param defaultLanguage       Template default language
+     * @param structuredComposition STRUCTURED composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return FLAT composition json string
+     */
+    default String convertStructuredToFlat(
+            TemplateRegistry templateRegistry,
+            String templateId,
+            String defaultLanguage,
+            String structuredComposition,
+            Map<String, Object> compositionBuilderContext) throws Exception {
+        return convertStructuredToFlat(templateRegistry, templateId, null, defaultLanguage, structuredComposition, compositionBuilderContext);
+    }
+
+    /**
+     * Converts STRUCTURED composition json string to the FLAT composition json string.
+     *
+     * @param templateRegistry      Registry holding the template
+     * @param templateId            Template id
+     * @param version               Template version, {@code null} for the template registered without one
+     * @param defaultLanguage       Template default language
+     * @param structuredComposition STRUCTURED composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @return FLAT composition json string
+     */
+    default String convertStructuredToFlat(
+            TemplateRegistry templateRegistry,
+            String templateId,
+            String version,
+            String defaultLanguage,
+            String structuredComposition,
+            Map<String, Object> compositionBuilderContext) throws Exception {
+        return convertStructuredToFlat(templateRegistry.lookup(templateId, version), defaultLanguage, structuredComposition, compositionBuilderContext);
+    }
+
+    /**
+     * Update a RAW composition json string with values of FLAT composition json string.
+     *
+     * @param templateRegistry      Registry holding the template
+     * @param templateId            Template id
+     * @param defaultLanguage       Template default language
+     * @param rawComposition        RAW composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param deltaValues                 Flat composition Map containing the values to be added
+     * @return RAW composition json string
+     */
+    default String updateRawComposition(
+            TemplateRegistry templateRegistry,
+            String templateId,
+            String defaultLanguage,
+            String rawComposition,
+            Map<String, Object> compositionBuilderContext,
+            Map<String, Object> deltaValues) throws Exception {
+        return updateRawComposition(templateRegistry, templateId, null, defaultLanguage, rawComposition, compositionBuilderContext, deltaValues);
+    }
+
+    /**
+     * Update a RAW composition json string with values of FLAT composition json string.
+     *
+     * @param templateRegistry      Registry holding the template
+     * @param templateId            Template id
+     * @param version               Template version, {@code null} for the template registered without one
+     * @param defaultLanguage       Template default language
+     * @param rawComposition        RAW composition json string
+     * @param compositionBuilderContext Map containing default values that will be used when composition is built
+     * @param deltaValues                 Flat composition Map containing the values to be added
+     * @return RAW composition json string
+     */
+    default String updateRawComposition(
+            TemplateRegistry templateRegistry,
+            String templateId,
+            String version,
+            String defaultLanguage,
+            String rawComposition,
+            Map<String, Object> compositionBuilderContext,
+            Map<String, Object> deltaValues) throws Exception {
+        return updateRawComposition(templateRegistry.lookup(templateId, version), defaultLanguage, rawComposition, compositionBuilderContext, deltaValues);
     }
 }
@@ -0,0 +1,47 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.converter;
+
+import care.better.platform.web.template.validator.CompositionValidator;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * Holds the {@link CompositionValidator} used by the default validated conversions of each {@link CompositionConverter}
+ * class, so the service loader runs once per converter class instead of once per call.
+ */
+final class CompositionValidators {
+    private static final ClassValue<CompositionValidator> VALIDATORS = new ClassValue<CompositionValidator>() {
+        @Override
+        protected CompositionValidator computeValue(Class<?> converterClass) {
+            Iterator<CompositionValidator> iterator = ServiceLoader.load(CompositionValidator.class, converterClass.getClassLoader()).iterator();
+            if (!iterator.hasNext()) {
+                throw new IllegalStateException(String.format(
+                        "No CompositionValidator was found for %s, override getCompositionValidator() or the validated conversions.",
+                        converterClass.getName()));
+            }
+            return iterator.next();
+        }
+    };
+
+    private CompositionValidators() {
+    }
+
+    static CompositionValidator get(Class<? extends CompositionConverter> converterClass) {
+        return VALIDATORS.get(converterClass);
+    }
+}
@@ -0,0 +1,71 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.converter;
+
+import java.util.Objects;
+
+/**
+ * Result of a single conversion in a batch, holding either the converted composition or the exception thrown while it was
+ * converted.
+ */
+public final class ConversionResult<T> {
+    private final T result;
+    private final Exception exception;
+
+    private ConversionResult(T result, Exception exception) {
+        this.result = result;
+        this.exception = exception;
+    }
+
+    public static <T> ConversionResult<T> success(T result) {
+        return new ConversionResult<>(result, null);
+    }
+
+    public static <T> ConversionResult<T> failure(Exception exception) {
+        return new ConversionResult<>(null, Objects.requireNonNull(exception, "Exception must not be null!"));
+    }
+
+    public boolean isSuccessful() {
+        return exception == null;
+    }
+
+    /**
+     * Returns the converted composition.
+     *
+     * @return Converted composition
+     * @throws IllegalStateException if the conversion failed
+     */
+    public T getResult() {
+        if (exception != null) {
+            throw new IllegalStateException("Conversion failed: " + exception.getMessage(), exception);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the exception thrown during the conversion.
+     *
+     * @return Exception or {@code null} if the conversion was successful
+     */
+    public Exception getException() {
+        return exception;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccessful() ? "ConversionResult{success}" : "ConversionResult{failure=" + exception + '}';
+    }
+}
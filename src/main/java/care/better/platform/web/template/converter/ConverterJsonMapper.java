@@ -0,0 +1,84 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.converter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Serialization used by the default {@link CompositionConverter} methods that bridge the json tree and the json string
+ * variants.
+ */
+final class ConverterJsonMapper {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .registerModule(new JodaModule())
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private ConverterJsonMapper() {
+    }
+
+    static ObjectMapper getObjectMapper() {
+        return OBJECT_MAPPER;
+    }
+
+    static String toJson(Object value) throws IOException {
+        return OBJECT_MAPPER.writeValueAsString(value);
+    }
+
+    static JsonNode toTree(String json) throws IOException {
+        return OBJECT_MAPPER.readTree(json);
+    }
+
+    @SuppressWarnings("AnonymousInnerClassMayBeStatic")
+    static Map<String, Object> toFlat(String json) throws IOException {
+        return OBJECT_MAPPER.readValue(json, new TypeReference<Map<String, Object>>() {});
+    }
+
+    static JsonNode readTree(JsonParser parser) throws IOException {
+        return OBJECT_MAPPER.readTree(parser);
+    }
+
+    @SuppressWarnings("AnonymousInnerClassMayBeStatic")
+    static Map<String, Object> readFlat(JsonParser parser) throws IOException {
+        return OBJECT_MAPPER.readValue(parser, new TypeReference<Map<String, Object>>() {});
+    }
+
+    static void write(JsonGenerator generator, Object value) throws IOException {
+        OBJECT_MAPPER.writeValue(generator, value);
+    }
+
+    static JsonParser createParser(InputStream inputStream) throws IOException {
+        return OBJECT_MAPPER.getFactory().createParser(inputStream);
+    }
+
+    static JsonGenerator createGenerator(OutputStream outputStream) throws IOException {
+        return OBJECT_MAPPER.getFactory().createGenerator(outputStream);
+    }
+}
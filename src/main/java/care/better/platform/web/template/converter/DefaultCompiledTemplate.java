@@ -0,0 +1,69 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.converter;
+
+/**
+ * {@link CompiledTemplate} returned by the default {@link CompositionConverter#compile(String, String)}, holding only the
+ * template xml string, its id and the default language.
+ */
+final class DefaultCompiledTemplate implements CompiledTemplate {
+    private final String template;
+    private final String defaultLanguage;
+    private final String templateId;
+
+    DefaultCompiledTemplate(String template, String defaultLanguage) {
+        this.template = template;
+        this.defaultLanguage = defaultLanguage;
+        templateId = getTemplateId(template);
+    }
+
+    /**
+     * Returns the template xml string of a handle returned by the default {@link CompositionConverter#compile(String, String)}.
+     *
+     * @param compiledTemplate Template handle
+     * @return Template xml string
+     */
+    static String getTemplate(CompiledTemplate compiledTemplate) {
+        if (!(compiledTemplate instanceof DefaultCompiledTemplate)) {
+            throw new IllegalArgumentException(String.format(
+                    "Compiled template %s was not returned by the default compile, the converter must override the conversions of compiled templates.",
+                    compiledTemplate.getTemplateId()));
+        }
+        return ((DefaultCompiledTemplate)compiledTemplate).template;
+    }
+
+    private static String getTemplateId(String template) {
+        int templateId = template.indexOf("<template_id>");
+        if (templateId >= 0) {
+            int valueStart = template.indexOf("<value>", templateId);
+            int valueEnd = valueStart < 0 ? -1 : template.indexOf("</value>", valueStart);
+            if (valueEnd >= 0) {
+                return template.substring(valueStart + "<value>".length(), valueEnd).trim();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String getTemplateId() {
+        return templateId;
+    }
+
+    @Override
+    public String getDefaultLanguage() {
+        return defaultLanguage;
+    }
+}
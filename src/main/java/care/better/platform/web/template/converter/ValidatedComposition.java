@@ -0,0 +1,53 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.converter;
+
+import care.better.platform.web.template.validator.ValidationErrorDto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Converted composition together with the validation errors found while it was converted.
+ */
+public final class ValidatedComposition {
+    private final String composition;
+    private final List<ValidationErrorDto> errors;
+
+    public ValidatedComposition(String composition, List<ValidationErrorDto> errors) {
+        this.composition = Objects.requireNonNull(composition, "Composition must not be null!");
+        this.errors = Collections.unmodifiableList(new ArrayList<>(errors));
+    }
+
+    public String getComposition() {
+        return composition;
+    }
+
+    public List<ValidationErrorDto> getErrors() {
+        return errors;
+    }
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ValidatedComposition{errors=" + errors.size() + '}';
+    }
+}
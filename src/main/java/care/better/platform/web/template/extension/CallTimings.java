@@ -0,0 +1,209 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.extension;
+
+import care.better.platform.web.template.performance.PerformanceReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Calls of the service provider interfaces timed by {@link TimingProxy}. Stored in the root {@code ExtensionContext} store,
+ * which closes it at the end of the test run. The calls are then written to {@value #JSON_FILE} and {@value #CSV_FILE}
+ * and the slowest calls and the slowest operations by template are printed to the standard output.
+ */
+public final class CallTimings implements ExtensionContext.Store.CloseableResource {
+    /**
+     * Configuration parameter that enables the timing of the calls when set to {@code true}.
+     */
+    public static final String CONFIGURATION_PARAMETER = "care.better.platform.web.template.timing";
+    public static final String DIRECTORY_CONFIGURATION_PARAMETER = "care.better.platform.web.template.timing.directory";
+    public static final String TOP_CONFIGURATION_PARAMETER = "care.better.platform.web.template.timing.top";
+    public static final String JSON_FILE = "web-template-timings.json";
+    public static final String CSV_FILE = "web-template-timings.csv";
+
+    private final Path directory;
+    private final int top;
+    private final Queue<Call> calls = new ConcurrentLinkedQueue<>();
+
+    CallTimings(Path directory, int top) {
+        if (top < 1) {
+            throw new IllegalArgumentException(String.format("Number of the slowest calls must be positive, was %s.", top));
+        }
+        this.directory = directory;
+        this.top = top;
+    }
+
+    static CallTimings create(ExtensionContext extensionContext) {
+        return new CallTimings(
+                Paths.get(extensionContext.getConfigurationParameter(DIRECTORY_CONFIGURATION_PARAMETER).orElse("target")),
+                extensionContext.getConfigurationParameter(TOP_CONFIGURATION_PARAMETER).map(Integer::parseInt).orElse(20));
+    }
+
+    static boolean isEnabled(ExtensionContext extensionContext) {
+        return extensionContext.getConfigurationParameter(CONFIGURATION_PARAMETER).map(Boolean::parseBoolean).orElse(false);
+    }
+
+    void record(Call call) {
+        calls.add(call);
+    }
+
+    List<Call> getCalls() {
+        return new ArrayList<>(calls);
+    }
+
+    @Override
+    public void close() throws IOException {
+        List<Call> recordedCalls = getCalls();
+        if (recordedCalls.isEmpty()) {
+            return;
+        }
+
+        PerformanceReport callReport = new PerformanceReport(
+                "Calls",
+                "operation", "template", "input size", "output size", "wall ms", "cpu ms", "exception");
+        List<Map<String, Object>> jsonCalls = new ArrayList<>();
+        for (Call call : recordedCalls) {
+            callReport.addRow(call.operation, call.template, call.inputSize, call.outputSize, call.getWallMillis(), formatCpuMillis(call), call.exception == null ? "-" : call.exception);
+            jsonCalls.add(call.toMap());
+        }
+
+        Files.createDirectories(directory);
+        callReport.writeCsv(directory.resolve(CSV_FILE));
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(directory.resolve(JSON_FILE).toFile(), jsonCalls);
+
+        System.out.println(getSlowestCalls(recordedCalls));
+        System.out.println(getSlowestOperations(recordedCalls));
+        System.out.println("Timings of " + recordedCalls.size() + " calls written to " + directory.resolve(JSON_FILE) + " and " + directory.resolve(CSV_FILE));
+    }
+
+    PerformanceReport getSlowestCalls(List<Call> recordedCalls) {
+        PerformanceReport report = new PerformanceReport(
+                "Slowest " + top + " calls",
+                "operation", "template", "input size", "output size", "wall ms", "cpu ms");
+        recordedCalls.stream()
+                .sorted(Comparator.comparingLong((Call call) -> call.wallNanos).reversed())
+                .limit(top)
+                .forEach(call -> report.addRow(call.operation, call.template, call.inputSize, call.outputSize, call.getWallMillis(), formatCpuMillis(call)));
+        return report;
+    }
+
+    PerformanceReport getSlowestOperations(List<Call> recordedCalls) {
+        Map<String, double[]> totals = new LinkedHashMap<>();
+        for (Call call : recordedCalls) {
+            double[] total = totals.computeIfAbsent(call.operation + '\t' + call.template, key -> new double[4]);
+            total[0]++;
+            total[1] += call.getWallMillis();
+            if (call.cpuNanos < 0L) {
+                total[3]++;
+            } else {
+                total[2] += call.getCpuMillis();
+            }
+        }
+
+        PerformanceReport report = new PerformanceReport(
+                "Slowest " + top + " operations by template",
+                "operation", "template", "calls", "total wall ms", "total cpu ms", "mean wall ms");
+        totals.entrySet().stream()
+                .sorted(Comparator.comparingDouble((Map.Entry<String, double[]> total) -> total.getValue()[1]).reversed())
+                .limit(top)
+                .forEach(total -> {
+                    String[] key = total.getKey().split("\t", 2);
+                    double[] value = total.getValue();
+                    report.addRow(key[0], key[1], (long)value[0], value[1], value[3] > 0.0 ? "-" : value[2], value[1] / value[0]);
+                });
+        return report;
+    }
+
+    /**
+     * Returns the cpu time of a call in milliseconds, or {@code -} if it was not measured.
+     */
+    private static Object formatCpuMillis(Call call) {
+        return call.cpuNanos < 0L ? "-" : call.getCpuMillis();
+    }
+
+    static final class Call {
+        private final String operation;
+        private final String template;
+        private final long inputSize;
+        private final long outputSize;
+        private final long wallNanos;
+        private final long cpuNanos;
+        private final String exception;
+
+        Call(String operation, String template, long inputSize, long outputSize, long wallNanos, long cpuNanos, String exception) {
+            this.operation = operation;
+            this.template = template;
+            this.inputSize = inputSize;
+            this.outputSize = outputSize;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.exception = exception;
+        }
+
+        String getOperation() {
+            return operation;
+        }
+
+        String getTemplate() {
+            return template;
+        }
+
+        long getInputSize() {
+            return inputSize;
+        }
+
+        long getOutputSize() {
+            return outputSize;
+        }
+
+        double getWallMillis() {
+            return wallNanos / 1.0e6;
+        }
+
+        double getCpuMillis() {
+            return cpuNanos < 0L ? -1.0 : cpuNanos / 1.0e6;
+        }
+
+        String getException() {
+            return exception;
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("operation", operation);
+            map.put("template", template);
+            map.put("inputSize", inputSize);
+            map.put("outputSize", outputSize);
+            map.put("wallNanos", wallNanos);
+            map.put("cpuNanos", cpuNanos);
+            map.put("exception", exception);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.extension;
+
+import care.better.platform.web.template.converter.CompositionConverter;
+import care.better.platform.web.template.provider.WebTemplateProvider;
+import care.better.platform.web.template.validator.CompositionValidator;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * Service provider instances resolved for one {@link SpiLifecycle} scope. Stored in the {@code ExtensionContext} store of
+ * the scope, which closes them when the scope ends. When calls are timed, the getters return {@link TimingProxy} instances.
+ */
+final class SpiInstances implements ExtensionContext.Store.CloseableResource {
+    private final CompositionConverter compositionConverter;
+    private final WebTemplateProvider webTemplateProvider;
+    private final CompositionValidator compositionValidator;
+    private final CompositionConverter timedCompositionConverter;
+    private final WebTemplateProvider timedWebTemplateProvider;
+    private final CompositionValidator timedCompositionValidator;
+
+    SpiInstances(CallTimings callTimings) {
+        compositionConverter = load(CompositionConverter.class);
+        webTemplateProvider = load(WebTemplateProvider.class);
+        compositionValidator = load(CompositionValidator.class);
+        if (callTimings == null) {
+            timedCompositionConverter = compositionConverter;
+            timedWebTemplateProvider = webTemplateProvider;
+            timedCompositionValidator = compositionValidator;
+        } else {
+            timedCompositionConverter = TimingProxy.wrap(CompositionConverter.class, compositionConverter, callTimings);
+            timedWebTemplateProvider = TimingProxy.wrap(WebTemplateProvider.class, webTemplateProvider, callTimings);
+            timedCompositionValidator = TimingProxy.wrap(CompositionValidator.class, compositionValidator, callTimings);
+        }
+    }
+
+    static <T> T load(Class<T> interfaceClass) {
+        Iterator<T> iterator = ServiceLoader.load(interfaceClass).iterator();
+        if (iterator.hasNext()) {
+            return iterator.next();
+        } else {
+            throw new IllegalStateException("No implementations of " + interfaceClass.getSimpleName() + " were found!");
+        }
+    }
+
+    CompositionConverter getCompositionConverter() {
+        return timedCompositionConverter;
+    }
+
+    WebTemplateProvider getWebTemplateProvider() {
+        return timedWebTemplateProvider;
+    }
+
+    CompositionValidator getCompositionValidator() {
+        return timedCompositionValidator;
+    }
+
+    @Override
+    public void close() throws Exception {
+        Set<Object> closed = Collections.newSetFromMap(new IdentityHashMap<>());
+        Exception exception = null;
+        for (Object instance : new Object[]{compositionConverter, webTemplateProvider, compositionValidator}) {
+            if (instance instanceof AutoCloseable && closed.add(instance)) {
+                try {
+                    ((AutoCloseable)instance).close();
+                } catch (Exception e) {
+                    if (exception == null) {
+                        exception = e;
+                    } else {
+                        exception.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.extension;
+
+import java.util.Locale;
+
+/**
+ * Lifecycle of the {@code CompositionConverter}, {@code WebTemplateProvider} and {@code CompositionValidator} instances
+ * resolved by {@link WebTemplateTestExtension}. Set with the {@value #CONFIGURATION_PARAMETER} configuration parameter,
+ * for example {@code -Dcare.better.platform.web.template.spi.lifecycle=per_jvm}.
+ * <p>
+ * Instances implementing {@link AutoCloseable} are closed when their lifecycle ends.
+ */
+public enum SpiLifecycle {
+    /**
+     * New instances are resolved for every test method.
+     */
+    PER_METHOD,
+    /**
+     * Instances are resolved once per test class.
+     */
+    PER_CLASS,
+    /**
+     * Instances are resolved once and shared by all test classes.
+     */
+    PER_JVM;
+
+    public static final String CONFIGURATION_PARAMETER = "care.better.platform.web.template.spi.lifecycle";
+
+    /**
+     * Parses the configuration parameter value.
+     *
+     * @param value Configuration parameter value, e.g. {@code per_class}
+     * @return {@code SpiLifecycle}, {@link #PER_METHOD} if the value is blank
+     */
+    public static SpiLifecycle fromValue(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return PER_METHOD;
+        }
+        try {
+            return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Unknown value %s of %s.", value, CONFIGURATION_PARAMETER), e);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.extension;
+
+import care.better.platform.web.template.context.CompositionBuilderContextKey;
+import care.better.platform.web.template.converter.CompiledTemplate;
+import care.better.platform.web.template.converter.ConversionResult;
+import care.better.platform.web.template.converter.ValidatedComposition;
+import care.better.platform.web.template.registry.TemplateRegistry;
+import care.better.platform.web.template.validator.CompositionValidator;
+import care.better.platform.web.template.validator.ValidationErrorDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Times every call of a service provider interface and records it in {@link CallTimings}. Calls of the default methods are
+ * timed once, the implementation methods they delegate to are invoked on the target directly. Asynchronous calls are recorded
+ * when their {@code CompletableFuture} completes, without the cpu time.
+ * <p>
+ * The input size is the number of json characters of the compositions passed to the call, whether as strings, json trees or
+ * FLAT maps, summed over batches. The output size is measured the same way, except that validation errors are counted.
+ */
+final class TimingProxy implements InvocationHandler {
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .registerModule(new JodaModule())
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private static final Set<String> CONTEXT_KEYS = Arrays.stream(CompositionBuilderContextKey.values())
+            .map(CompositionBuilderContextKey::getKey)
+            .collect(Collectors.toSet());
+
+    private final String interfaceName;
+    private final boolean languageArgument;
+    private final Object target;
+    private final CallTimings callTimings;
+
+    private TimingProxy(Class<?> interfaceClass, Object target, CallTimings callTimings) {
+        interfaceName = interfaceClass.getSimpleName();
+        languageArgument = interfaceClass != CompositionValidator.class;
+        this.target = target;
+        this.callTimings = callTimings;
+    }
+
+    static <T> T wrap(Class<T> interfaceClass, T target, CallTimings callTimings) {
+        return interfaceClass.cast(Proxy.newProxyInstance(
+                interfaceClass.getClassLoader(),
+                new Class<?>[]{interfaceClass},
+                new TimingProxy(interfaceClass, target, callTimings)));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return invokeObjectMethod(proxy, method, args);
+        }
+
+        boolean cpuTimeSupported = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported();
+        long cpuStart = cpuTimeSupported ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0L;
+        long start = System.nanoTime();
+        String operation = interfaceName + '.' + method.getName();
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            long cpuNanos = cpuTimeSupported ? THREAD_MX_BEAN.getCurrentThreadCpuTime() - cpuStart : -1L;
+            record(method, operation, args, null, e.getCause(), System.nanoTime() - start, cpuNanos);
+            throw e.getCause();
+        }
+
+        if (result instanceof CompletableFuture) {
+            ((CompletableFuture<?>)result).whenComplete((value, throwable) -> record(method, operation, args, value, throwable, System.nanoTime() - start, -1L));
+        } else {
+            long cpuNanos = cpuTimeSupported ? THREAD_MX_BEAN.getCurrentThreadCpuTime() - cpuStart : -1L;
+            record(method, operation, args, result, null, System.nanoTime() - start, cpuNanos);
+        }
+        return result;
+    }
+
+    private void record(Method method, String operation, Object[] args, Object result, Throwable throwable, long wallNanos, long cpuNanos) {
+        callTimings.record(new CallTimings.Call(
+                operation,
+                getTemplateName(args),
+                getInputSize(method, args),
+                throwable == null ? getSize(result) : -1L,
+                wallNanos,
+                cpuNanos,
+                throwable == null ? null : throwable.getClass().getName()));
+    }
+
+    private Object invokeObjectMethod(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "TimingProxy{" + target + '}';
+            default:
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+        }
+    }
+
+    private static String getTemplateName(Object[] args) {
+        if (args == null || args.length == 0) {
+            return "-";
+        }
+        if (args[0] instanceof TemplateRegistry && args.length > 1 && args[1] instanceof String) {
+            return (String)args[1];
+        }
+        if (args[0] instanceof CompiledTemplate) {
+            String templateId = ((CompiledTemplate)args[0]).getTemplateId();
+            return templateId == null ? "-" : templateId;
+        }
+        if (args[0] instanceof String) {
+            return getTemplateName((String)args[0]);
+        }
+        return "-";
+    }
+
+    /**
+     * Returns the template id of an operational template, or the hash of any other template.
+     *
+     * @param template Template xml string
+     * @return Template name
+     */
+    static String getTemplateName(String template) {
+        int templateId = template.indexOf("<template_id>");
+        if (templateId >= 0) {
+            int valueStart = template.indexOf("<value>", templateId);
+            int valueEnd = valueStart < 0 ? -1 : template.indexOf("</value>", valueStart);
+            if (valueEnd >= 0) {
+                return template.substring(valueStart + "<value>".length(), valueEnd).trim();
+            }
+        }
+        return "#" + Integer.toHexString(template.hashCode());
+    }
+
+    /**
+     * Returns the size of the compositions passed to the call: the sum of the sizes of the arguments after the template, the
+     * template id, the template version and the default language, leaving out the composition builder contexts.
+     */
+    private long getInputSize(Method method, Object[] args) {
+        long size = 0L;
+        if (args != null && args.length > 0) {
+            int first = 1;
+            if (args[0] instanceof TemplateRegistry) {
+                first += isVersioned(method) ? 2 : 1;
+            }
+            if (languageArgument && !(args[0] instanceof CompiledTemplate)) {
+                first++;
+            }
+            for (int i = first; i < args.length; i++) {
+                if (isComposition(args[i])) {
+                    long argumentSize = getSize(args[i]);
+                    if (argumentSize < 0L) {
+                        return -1L;
+                    }
+                    size += argumentSize;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns whether a registry method takes the template version after the template id, that is whether the interface has the
+     * same method without it.
+     */
+    private static boolean isVersioned(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        if (parameterTypes.length < 3 || parameterTypes[2] != String.class) {
+            return false;
+        }
+        Class<?>[] versionlessTypes = new Class<?>[parameterTypes.length - 1];
+        versionlessTypes[0] = parameterTypes[0];
+        versionlessTypes[1] = parameterTypes[1];
+        System.arraycopy(parameterTypes, 3, versionlessTypes, 2, parameterTypes.length - 3);
+        try {
+            method.getDeclaringClass().getMethod(method.getName(), versionlessTypes);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static boolean isComposition(Object value) {
+        if (value instanceof Map) {
+            return !CONTEXT_KEYS.containsAll(((Map<?, ?>)value).keySet());
+        }
+        return value instanceof String || value instanceof JsonNode || value instanceof List;
+    }
+
+    /**
+     * Returns the number of json characters of a composition, the sum of the sizes of a batch, or the number of validation
+     * errors. Values of other types have no size, {@code -1}.
+     */
+    static long getSize(Object value) {
+        if (value instanceof String) {
+            return ((String)value).length();
+        }
+        if (value instanceof JsonNode || value instanceof Map) {
+            try {
+                return OBJECT_MAPPER.writeValueAsString(value).length();
+            } catch (JsonProcessingException ignored) {
+                return -1L;
+            }
+        }
+        if (value instanceof ConversionResult) {
+            ConversionResult<?> conversionResult = (ConversionResult<?>)value;
+            return conversionResult.isSuccessful() ? getSize(conversionResult.getResult()) : 0L;
+        }
+        if (value instanceof ValidatedComposition) {
+            return getSize(((ValidatedComposition)value).getComposition());
+        }
+        if (value instanceof ValidationErrorDto) {
+            return 1L;
+        }
+        if (value instanceof Collection) {
+            long size = 0L;
+            for (Object element : (Collection<?>)value) {
+                long elementSize = getSize(element);
+                if (elementSize < 0L) {
+                    return -1L;
+                }
+                size += elementSize;
+            }
+            return size;
+        }
+        return -1L;
+    }
+}
@@ -19,19 +19,29 @@ import care.better.platform.web.template.AbstractWebTemplateTest;
 import care.better.platform.web.template.converter.CompositionConverter;
 import care.better.platform.web.template.provider.WebTemplateProvider;
 import care.better.platform.web.template.validator.CompositionValidator;
+import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.InvocationInterceptor;
 import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
 
 import java.lang.reflect.Method;
-import java.util.Iterator;
 import java.util.ServiceLoader;
 import java.util.function.Consumer;
 
 /**
+ * Sets the {@code CompositionConverter}, {@code WebTemplateProvider} and {@code CompositionValidator} implementations found
+ * with {@link ServiceLoader} on the test instance. How long the instances are reused is set by {@link SpiLifecycle}.
+ * <p>
+ * The extension is safe for JUnit parallel execution. Test instances created per class share their fields between concurrently
+ * running test methods, so their implementations are resolved at least per class and are not cleared after each method.
+ * <p>
+ * When the {@value CallTimings#CONFIGURATION_PARAMETER} configuration parameter is {@code true}, the implementations are
+ * wrapped in proxies that time every call. The timings are written and summarized at the end of the test run.
+ *
  * @author Primoz Delopst
  */
 public class WebTemplateTestExtension implements InvocationInterceptor {
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(WebTemplateTestExtension.class);
 
     @Override
     public void interceptBeforeEachMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext, ExtensionContext extensionContext) throws Throwable {
@@ -41,9 +51,10 @@ public class WebTemplateTestExtension implements InvocationInterceptor {
                 .map(instance -> (AbstractWebTemplateTest)instance)
                 .orElseThrow(() -> new IllegalStateException("Test class must be an instance of an AbstractWebTemplateTest and must be initialized!"));
 
-        invokeSetter(abstractWebTemplateTest::setCompositionConverter, CompositionConverter.class);
-        invokeSetter(abstractWebTemplateTest::setWebTemplateProvider, WebTemplateProvider.class);
-        invokeSetter(abstractWebTemplateTest::setCompositionValidator, CompositionValidator.class);
+        SpiInstances spiInstances = getSpiInstances(extensionContext);
+        abstractWebTemplateTest.setCompositionConverter(spiInstances.getCompositionConverter());
+        abstractWebTemplateTest.setWebTemplateProvider(spiInstances.getWebTemplateProvider());
+        abstractWebTemplateTest.setCompositionValidator(spiInstances.getCompositionValidator());
 
         invocation.proceed();
     }
@@ -55,19 +66,50 @@ public class WebTemplateTestExtension implements InvocationInterceptor {
                 .map(instance -> (AbstractWebTemplateTest)instance)
                 .orElseThrow(() -> new IllegalStateException("Test class must an be instance of an AbstractWebTemplateTest and must be initialized!"));
 
-        abstractWebTemplateTest.setCompositionConverter(null);
-        abstractWebTemplateTest.setWebTemplateProvider(null);
-        abstractWebTemplateTest.setCompositionValidator(null);
+        if (!isSharedTestInstance(extensionContext)) {
+            abstractWebTemplateTest.setCompositionConverter(null);
+            abstractWebTemplateTest.setWebTemplateProvider(null);
+            abstractWebTemplateTest.setCompositionValidator(null);
+        }
 
         invocation.proceed();
     }
 
     public <T> void invokeSetter(Consumer<T> consumer, Class<T> interfaceClass) {
-        Iterator<T> iterator = ServiceLoader.load(interfaceClass).iterator();
-        if (iterator.hasNext()) {
-            consumer.accept(iterator.next());
-        } else {
-            throw new IllegalStateException("No implementations of " + interfaceClass.getSimpleName() + " were found!");
+        consumer.accept(SpiInstances.load(interfaceClass));
+    }
+
+    private SpiInstances getSpiInstances(ExtensionContext extensionContext) {
+        SpiLifecycle spiLifecycle = SpiLifecycle.fromValue(extensionContext.getConfigurationParameter(SpiLifecycle.CONFIGURATION_PARAMETER).orElse(null));
+        if (spiLifecycle == SpiLifecycle.PER_METHOD && isSharedTestInstance(extensionContext)) {
+            spiLifecycle = SpiLifecycle.PER_CLASS;
+        }
+        CallTimings callTimings = CallTimings.isEnabled(extensionContext)
+                ? extensionContext.getRoot()
+                        .getStore(NAMESPACE)
+                        .getOrComputeIfAbsent(CallTimings.class, key -> CallTimings.create(extensionContext), CallTimings.class)
+                : null;
+        return getScope(extensionContext, spiLifecycle)
+                .getStore(NAMESPACE)
+                .getOrComputeIfAbsent(SpiInstances.class, key -> new SpiInstances(callTimings), SpiInstances.class);
+    }
+
+    private boolean isSharedTestInstance(ExtensionContext extensionContext) {
+        return extensionContext.getTestInstanceLifecycle().filter(lifecycle -> lifecycle == TestInstance.Lifecycle.PER_CLASS).isPresent();
+    }
+
+    private ExtensionContext getScope(ExtensionContext extensionContext, SpiLifecycle spiLifecycle) {
+        switch (spiLifecycle) {
+            case PER_JVM:
+                return extensionContext.getRoot();
+            case PER_CLASS:
+                ExtensionContext classContext = extensionContext;
+                while (classContext.getTestMethod().isPresent() && classContext.getParent().isPresent()) {
+                    classContext = classContext.getParent().get();
+                }
+                return classContext;
+            default:
+                return extensionContext;
         }
     }
 }
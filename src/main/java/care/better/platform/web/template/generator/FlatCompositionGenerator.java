@@ -0,0 +1,377 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates FLAT compositions from the web template json returned by {@code WebTemplateProvider.provide}.
+ * <p>
+ * Every node is generated within its occurrences: mandatory nodes are always present, repeating nodes are expanded up to
+ * {@link Builder#repetitions(int)} instances and optional nodes can be left out. Values are generated from the input
+ * constraints of each node: codes from the input lists, numbers within the validation ranges and precision and units with
+ * their own ranges. Nodes filled from the composition builder context ({@code inContext}) are skipped and one alternative
+ * is generated for choice elements. {@link Builder#maxDepth(int)} limits the optional nodes to the upper levels of the web
+ * template tree, so one template yields a series of compositions of growing depth.
+ * <p>
+ * The generator is thread safe. With the same seed, the same web template always produces the same composition.
+ */
+public final class FlatCompositionGenerator {
+    /**
+     * Marks an unbounded number of generated values.
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String DATE_TIME = "2020-01-01T12:00:00Z";
+    private static final String DATE = "2020-01-01";
+    private static final String TIME = "12:00:00";
+
+    private final int repetitions;
+    private final boolean includeOptional;
+    private final int maxValues;
+    private final int maxDepth;
+    private final long seed;
+
+    private FlatCompositionGenerator(int repetitions, boolean includeOptional, int maxValues, int maxDepth, long seed) {
+        if (repetitions < 1) {
+            throw new IllegalArgumentException(String.format("Repetitions must be positive, was %s.", repetitions));
+        }
+        if (maxValues < 1) {
+            throw new IllegalArgumentException(String.format("Max values must be positive, was %s.", maxValues));
+        }
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException(String.format("Max depth must be positive, was %s.", maxDepth));
+        }
+        this.repetitions = repetitions;
+        this.includeOptional = includeOptional;
+        this.maxValues = maxValues;
+        this.maxDepth = maxDepth;
+        this.seed = seed;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    public boolean isIncludeOptional() {
+        return includeOptional;
+    }
+
+    public int getMaxValues() {
+        return maxValues;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Generates FLAT composition
+     *
+     * @param webTemplate Web template json string
+     * @return FLAT composition json string
+     */
+    public String generate(String webTemplate) throws IOException {
+        return OBJECT_MAPPER.writeValueAsString(generate(OBJECT_MAPPER.readTree(webTemplate)));
+    }
+
+    /**
+     * Generates FLAT composition
+     *
+     * @param webTemplate Web template json tree
+     * @return FLAT composition, in the order of the web template nodes
+     */
+    public Map<String, Object> generate(JsonNode webTemplate) {
+        JsonNode tree = webTemplate.path("tree");
+        if (!tree.isObject() || !tree.hasNonNull("id")) {
+            throw new IllegalArgumentException("Web template has no tree.");
+        }
+        Generation generation = new Generation();
+        generation.node(tree, tree.get("id").asText(), 1);
+        return generation.values;
+    }
+
+    @Override
+    public String toString() {
+        return "FlatCompositionGenerator{" +
+                "repetitions=" + repetitions +
+                ", includeOptional=" + includeOptional +
+                ", maxValues=" + (maxValues == UNLIMITED ? "unlimited" : String.valueOf(maxValues)) +
+                ", maxDepth=" + (maxDepth == UNLIMITED ? "unlimited" : String.valueOf(maxDepth)) +
+                ", seed=" + seed +
+                '}';
+    }
+
+    private final class Generation {
+        private final Map<String, Object> values = new LinkedHashMap<>();
+        private final Random random = new Random(seed);
+        private int textCounter;
+
+        private void node(JsonNode node, String path, int depth) {
+            String rmType = node.path("rmType").asText();
+            if (node.has("inputs")) {
+                inputs(node, rmType, path);
+            } else if ("ELEMENT".equals(rmType) && node.has("children")) {
+                List<JsonNode> alternatives = new ArrayList<>();
+                node.get("children").forEach(child -> {
+                    if (isGenerated(child) && (child.has("inputs") || child.has("children"))) {
+                        alternatives.add(child);
+                    }
+                });
+                if (!alternatives.isEmpty()) {
+                    JsonNode alternative = alternatives.get(random.nextInt(alternatives.size()));
+                    node(alternative, path + '/' + alternative.get("id").asText(), depth + 1);
+                }
+            } else if ("ISM_TRANSITION".equals(rmType)) {
+                JsonNode state = findChild(node, "careflow_step");
+                if (state == null) {
+                    state = findChild(node, "current_state");
+                }
+                if (state != null) {
+                    node(state, path + '/' + state.get("id").asText(), depth + 1);
+                }
+            } else {
+                for (JsonNode child : node.path("children")) {
+                    if (isGenerated(child)) {
+                        children(child, path + '/' + child.get("id").asText(), depth + 1);
+                    }
+                }
+            }
+        }
+
+        private void children(JsonNode child, String path, int depth) {
+            int min = child.path("min").asInt(0);
+            int max = child.path("max").asInt(1);
+            int count = Math.max(min, includeOptional && depth <= maxDepth ? max < 0 ? repetitions : Math.min(max, repetitions) : 0);
+            for (int i = 0; i < count && (i < min || values.size() < maxValues); i++) {
+                node(child, max == 1 ? path : path + ':' + i, depth);
+            }
+        }
+
+        private boolean isGenerated(JsonNode node) {
+            return !node.path("inContext").asBoolean(false) && !"null_flavour".equals(node.path("id").asText());
+        }
+
+        private JsonNode findChild(JsonNode node, String id) {
+            for (JsonNode child : node.path("children")) {
+                if (id.equals(child.path("id").asText())) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        private void inputs(JsonNode node, String rmType, String path) {
+            JsonNode unit = null;
+            boolean coded = false;
+            for (JsonNode input : node.get("inputs")) {
+                if ("CODED_TEXT".equals(input.path("type").asText()) && input.path("list").size() > 0) {
+                    coded = true;
+                }
+            }
+
+            for (JsonNode input : node.get("inputs")) {
+                String suffix = input.path("suffix").asText(null);
+                String type = input.path("type").asText();
+                if ("DV_QUANTITY".equals(rmType) && "magnitude".equals(suffix)) {
+                    continue;
+                }
+                if (coded && "TEXT".equals(type) && "value".equals(suffix)) {
+                    continue;
+                }
+
+                String inputPath = suffix == null ? path : path + '|' + suffix;
+                JsonNode list = input.path("list");
+                if (list.size() > 0) {
+                    JsonNode item = list.get(random.nextInt(list.size()));
+                    values.put(inputPath, item.path("value").asText());
+                    if ("DV_QUANTITY".equals(rmType) && "unit".equals(suffix)) {
+                        unit = item;
+                    }
+                } else if ("DV_PROPORTION".equals(rmType) && "denominator".equals(suffix)) {
+                    values.put(inputPath, denominator(node, input));
+                } else {
+                    values.put(inputPath, value(node, rmType, type, input.path("validation")));
+                }
+            }
+
+            if ("DV_QUANTITY".equals(rmType)) {
+                for (JsonNode input : node.get("inputs")) {
+                    if ("magnitude".equals(input.path("suffix").asText())) {
+                        JsonNode validation = unit != null && unit.has("validation") ? unit.get("validation") : input.path("validation");
+                        JsonNode precision = validation.has("precision") ? validation.get("precision") : input.path("validation").path("precision");
+                        values.put(path + "|magnitude", number(validation.path("range"), precision, false));
+                    }
+                }
+            }
+        }
+
+        private Object denominator(JsonNode node, JsonNode input) {
+            JsonNode proportionTypes = node.path("proportionTypes");
+            for (JsonNode proportionType : proportionTypes) {
+                if ("unitary".equalsIgnoreCase(proportionType.asText())) {
+                    return 1;
+                }
+                if ("percent".equalsIgnoreCase(proportionType.asText())) {
+                    return 100;
+                }
+            }
+            return number(input.path("validation"), false);
+        }
+
+        private Number number(JsonNode validation, boolean integer) {
+            return number(validation.path("range"), validation.path("precision"), integer);
+        }
+
+        private Object value(JsonNode node, String rmType, String type, JsonNode validation) {
+            switch (type) {
+                case "INTEGER":
+                    return number(validation, true);
+                case "DECIMAL":
+                    return number(validation, false);
+                case "BOOLEAN":
+                    return true;
+                case "DATETIME":
+                    return DATE_TIME;
+                case "DATE":
+                    return DATE;
+                case "TIME":
+                    return TIME;
+                default:
+                    textCounter++;
+                    if ("DV_URI".equals(rmType) || "DV_MULTIMEDIA".equals(rmType)) {
+                        return "https://example.com/" + textCounter;
+                    }
+                    if ("DV_EHR_URI".equals(rmType)) {
+                        return "ehr:/compositions/" + textCounter;
+                    }
+                    return node.path("id").asText() + ' ' + textCounter;
+            }
+        }
+
+        private Number number(JsonNode range, JsonNode precision, boolean integer) {
+            int scale = integer ? 0 : precision.has("max") ? precision.get("max").asInt() : 1;
+            BigDecimal step = BigDecimal.ONE.movePointLeft(scale);
+
+            BigDecimal min = range.has("min") ? range.get("min").decimalValue() : null;
+            BigDecimal max = range.has("max") ? range.get("max").decimalValue() : null;
+            if (min != null && (">".equals(range.path("minOp").asText()) || min.scale() > scale)) {
+                min = min.setScale(scale, RoundingMode.FLOOR).add(step);
+            }
+            if (max != null && ("<".equals(range.path("maxOp").asText()) || max.scale() > scale)) {
+                max = max.setScale(scale, RoundingMode.CEILING).subtract(step);
+            }
+            if (min == null) {
+                min = max == null || max.compareTo(BigDecimal.ONE) >= 0 ? BigDecimal.ONE : max.subtract(BigDecimal.valueOf(100L));
+            }
+            if (max == null || max.compareTo(min) < 0) {
+                max = min.add(BigDecimal.valueOf(100L));
+            }
+
+            BigDecimal value = min.add(max.subtract(min).multiply(BigDecimal.valueOf(random.nextDouble()))).setScale(scale, RoundingMode.FLOOR);
+            if (value.compareTo(min) < 0) {
+                value = min.setScale(scale, RoundingMode.CEILING);
+            }
+            return integer ? (Number)value.longValueExact() : (Number)value;
+        }
+    }
+
+    public static final class Builder {
+        private int repetitions = 1;
+        private boolean includeOptional = true;
+        private int maxValues = UNLIMITED;
+        private int maxDepth = UNLIMITED;
+        private long seed;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the number of instances generated for repeating nodes. Nodes are never generated more often than their maximum
+         * occurrences allow or less often than their minimum occurrences require.
+         *
+         * @param repetitions Number of instances of repeating nodes
+         * @return {@code Builder}
+         */
+        public Builder repetitions(int repetitions) {
+            this.repetitions = repetitions;
+            return this;
+        }
+
+        /**
+         * Sets whether optional nodes are generated. Without them, only the mandatory nodes are generated.
+         *
+         * @param includeOptional optional nodes setting
+         * @return {@code Builder}
+         */
+        public Builder includeOptional(boolean includeOptional) {
+            this.includeOptional = includeOptional;
+            return this;
+        }
+
+        /**
+         * Sets the number of values after which no more optional node instances are generated. Mandatory nodes are still
+         * generated, so the composition can have more values.
+         *
+         * @param maxValues Number of values
+         * @return {@code Builder}
+         */
+        public Builder maxValues(int maxValues) {
+            this.maxValues = maxValues;
+            return this;
+        }
+
+        /**
+         * Sets the depth of the web template tree, counted from the composition node at depth 1, below which no optional node
+         * instances are generated. Mandatory nodes are still generated at any depth, so the composition stays valid.
+         *
+         * @param maxDepth Web template tree depth
+         * @return {@code Builder}
+         */
+        public Builder maxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public FlatCompositionGenerator build() {
+            return new FlatCompositionGenerator(repetitions, includeOptional, maxValues, maxDepth, seed);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.performance;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Callable;
+
+/**
+ * Measures the bytes allocated by the current thread with {@code com.sun.management.ThreadMXBean}.
+ */
+public final class AllocationMeter {
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = getThreadMXBean();
+
+    private AllocationMeter() {
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean)threadMXBean;
+            if (sunThreadMXBean.isThreadAllocatedMemorySupported()) {
+                if (!sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+                    sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+                }
+                return sunThreadMXBean;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the JVM supports the measurement of allocated bytes per thread.
+     *
+     * @return {@code true} if allocations can be measured
+     */
+    public static boolean isSupported() {
+        return THREAD_MX_BEAN != null;
+    }
+
+    /**
+     * Returns the total number of bytes allocated by the current thread.
+     *
+     * @return Allocated bytes
+     * @throws IllegalStateException if the measurement is not supported
+     */
+    public static long getAllocatedBytes() {
+        if (THREAD_MX_BEAN == null) {
+            throw new IllegalStateException("Measurement of thread allocated memory is not supported by this JVM.");
+        }
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread while the operation was called.
+     *
+     * @param operation Operation
+     * @return Allocated bytes
+     */
+    public static long measure(Callable<?> operation) throws Exception {
+        long start = getAllocatedBytes();
+        operation.call();
+        return getAllocatedBytes() - start;
+    }
+}
@@ -0,0 +1,49 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.performance;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Measures the used heap after garbage collection, as an estimate of the retained heap.
+ */
+public final class HeapMeter {
+    private static final int MAX_COLLECTIONS = 10;
+    private static final MemoryMXBean MEMORY_MX_BEAN = ManagementFactory.getMemoryMXBean();
+
+    private HeapMeter() {
+    }
+
+    /**
+     * Forces garbage collections until the used heap stops decreasing and returns it.
+     *
+     * @return Used heap in bytes
+     */
+    public static long getRetainedHeap() throws InterruptedException {
+        long usedHeap = Long.MAX_VALUE;
+        for (int i = 0; i < MAX_COLLECTIONS; i++) {
+            System.gc();
+            Thread.sleep(20L);
+            long currentUsedHeap = MEMORY_MX_BEAN.getHeapMemoryUsage().getUsed();
+            if (currentUsedHeap >= usedHeap) {
+                return usedHeap;
+            }
+            usedHeap = currentUsedHeap;
+        }
+        return usedHeap;
+    }
+}
@@ -0,0 +1,59 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.performance;
+
+import java.util.Arrays;
+
+/**
+ * Percentiles of measured samples, using the nearest-rank method.
+ */
+public final class Percentiles {
+    private final double[] samples;
+
+    public Percentiles(double[] samples) {
+        if (samples.length == 0) {
+            throw new IllegalArgumentException("At least one sample is required.");
+        }
+        this.samples = samples.clone();
+        Arrays.sort(this.samples);
+    }
+
+    /**
+     * Returns the percentile.
+     *
+     * @param percentile Percentile between 0 and 100
+     * @return Smallest sample that is greater than or equal to the given percentage of samples
+     */
+    public double get(double percentile) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException(String.format("Percentile must be between 0 and 100, was %s.", percentile));
+        }
+        int rank = (int)Math.ceil(percentile / 100.0 * samples.length);
+        return samples[Math.max(rank, 1) - 1];
+    }
+
+    public double getMin() {
+        return samples[0];
+    }
+
+    public double getMax() {
+        return samples[samples.length - 1];
+    }
+
+    public int size() {
+        return samples.length;
+    }
+}
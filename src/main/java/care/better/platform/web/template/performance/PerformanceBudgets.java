@@ -0,0 +1,100 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.performance;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Properties;
+
+/**
+ * Performance budgets supplied by the implementation under test as a classpath properties file, by default
+ * {@value #DEFAULT_RESOURCE}. A different resource can be set with the {@value #RESOURCE_PROPERTY} system property.
+ * <p>
+ * Budgets are looked up from the most to the least specific key, e.g. {@code latency.large.convertRawToFlat.p99},
+ * {@code latency.convertRawToFlat.p99} and {@code latency.p99}.
+ */
+public final class PerformanceBudgets {
+    /**
+     * System property that enables the performance conformance tests when set to {@code true}.
+     */
+    public static final String ENABLED_PROPERTY = "care.better.platform.web.template.performance";
+    public static final String RESOURCE_PROPERTY = "care.better.platform.web.template.performance.budgets";
+    public static final String DEFAULT_RESOURCE = "/web-template-performance.properties";
+
+    private final String resourceName;
+    private final Properties properties;
+
+    PerformanceBudgets(String resourceName, Properties properties) {
+        this.resourceName = resourceName;
+        this.properties = properties;
+    }
+
+    /**
+     * Loads the budgets from the classpath.
+     *
+     * @return {@code PerformanceBudgets} or empty if the properties file was not found
+     */
+    public static Optional<PerformanceBudgets> load() throws IOException {
+        String resourceName = System.getProperty(RESOURCE_PROPERTY, DEFAULT_RESOURCE);
+        try (InputStream inputStream = PerformanceBudgets.class.getResourceAsStream(resourceName)) {
+            if (inputStream == null) {
+                return Optional.empty();
+            }
+            Properties properties = new Properties();
+            properties.load(inputStream);
+            return Optional.of(new PerformanceBudgets(resourceName, properties));
+        }
+    }
+
+    public String getResourceName() {
+        return resourceName;
+    }
+
+    /**
+     * Returns the value of the first key that is set.
+     *
+     * @param keys Keys from the most to the least specific
+     * @return Budget or empty if none of the keys is set
+     * @throws IllegalArgumentException if the value is not a number
+     */
+    public OptionalDouble getBudget(String... keys) {
+        for (String key : keys) {
+            String value = properties.getProperty(key);
+            if (value != null && !value.trim().isEmpty()) {
+                try {
+                    return OptionalDouble.of(Double.parseDouble(value.trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(String.format("Value %s of %s in %s is not a number.", value, key, resourceName), e);
+                }
+            }
+        }
+        return OptionalDouble.empty();
+    }
+
+    /**
+     * Returns the integer setting, e.g. the number of iterations.
+     *
+     * @param key          Key
+     * @param defaultValue Value used when the key is not set
+     * @return Setting value
+     */
+    public int getInt(String key, int defaultValue) {
+        OptionalDouble value = getBudget(key);
+        return value.isPresent() ? (int)value.getAsDouble() : defaultValue;
+    }
+}
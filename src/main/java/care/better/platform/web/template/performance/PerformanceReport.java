@@ -0,0 +1,150 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.performance;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Tabular report of performance measurements, rendered as aligned text or written as CSV.
+ */
+public final class PerformanceReport {
+    /**
+     * System property with the directory the CSV reports are written to. Reports are not written if it is not set.
+     */
+    public static final String DIRECTORY_PROPERTY = "care.better.platform.web.template.performance.reports";
+
+    private final String title;
+    private final List<String> columns;
+    private final List<List<String>> rows = new ArrayList<>();
+
+    public PerformanceReport(String title, String... columns) {
+        this.title = title;
+        this.columns = Collections.unmodifiableList(Arrays.asList(columns.clone()));
+    }
+
+    public synchronized void addRow(Object... values) {
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException(String.format("Row must have %s values, had %s.", columns.size(), values.length));
+        }
+        rows.add(Arrays.stream(values).map(PerformanceReport::format).collect(Collectors.toList()));
+    }
+
+    /**
+     * Sorts the rows by the numeric value of the column, in descending order. Non-numeric values are sorted last.
+     *
+     * @param column Column name
+     */
+    public synchronized void sortDescending(String column) {
+        int index = columns.indexOf(column);
+        if (index < 0) {
+            throw new IllegalArgumentException(String.format("Unknown column %s.", column));
+        }
+        rows.sort(Comparator.comparingDouble((List<String> row) -> toNumber(row.get(index))).reversed());
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public synchronized List<List<String>> getRows() {
+        return Collections.unmodifiableList(new ArrayList<>(rows));
+    }
+
+    public synchronized void writeCsv(Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write(columns.stream().map(PerformanceReport::quote).collect(Collectors.joining(",")));
+            writer.write('\n');
+            for (List<String> row : rows) {
+                writer.write(row.stream().map(PerformanceReport::quote).collect(Collectors.joining(",")));
+                writer.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes the report as CSV into the directory set with the {@value #DIRECTORY_PROPERTY} system property.
+     *
+     * @param fileName CSV file name
+     * @return Path of the written file or {@code null} if the directory is not set
+     */
+    public Path writeCsv(String fileName) throws IOException {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        if (directory == null || directory.trim().isEmpty()) {
+            return null;
+        }
+        Path path = Paths.get(directory, fileName);
+        Files.createDirectories(path.getParent());
+        writeCsv(path);
+        return path;
+    }
+
+    @Override
+    public synchronized String toString() {
+        int[] widths = new int[columns.size()];
+        for (int i = 0; i < widths.length; i++) {
+            widths[i] = columns.get(i).length();
+            for (List<String> row : rows) {
+                widths[i] = Math.max(widths[i], row.get(i).length());
+            }
+        }
+
+        StringBuilder builder = new StringBuilder(title).append('\n');
+        appendRow(builder, columns, widths);
+        for (List<String> row : rows) {
+            appendRow(builder, row, widths);
+        }
+        return builder.toString();
+    }
+
+    private static void appendRow(StringBuilder builder, List<String> row, int[] widths) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < widths.length; i++) {
+            line.append(i == 0 ? "" : "  ").append(String.format("%-" + widths[i] + 's', row.get(i)));
+        }
+        builder.append(line.toString().trim()).append('\n');
+    }
+
+    private static String format(Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            return String.format(Locale.ROOT, "%.3f", ((Number)value).doubleValue());
+        }
+        return String.valueOf(value);
+    }
+
+    private static double toNumber(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    private static String quote(String value) {
+        return value.contains(",") || value.contains("\"") ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
@@ -0,0 +1,52 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.performance;
+
+/**
+ * Least squares fit of measurements on a log-log scale. The slope is the exponent {@code k} of {@code y ~ x^k}, e.g. 1 for
+ * linear and 2 for quadratic growth.
+ */
+public final class ScalingExponent {
+    private ScalingExponent() {
+    }
+
+    /**
+     * Fits the exponent.
+     *
+     * @param x Sizes, all positive
+     * @param y Measurements of the sizes, all positive
+     * @return Slope of {@code log(y)} over {@code log(x)}
+     */
+    public static double fit(double[] x, double[] y) {
+        if (x.length != y.length || x.length < 2) {
+            throw new IllegalArgumentException(String.format("At least two pairs of values are required, were %s and %s.", x.length, y.length));
+        }
+        int n = x.length;
+        double sumX = 0.0;
+        double sumY = 0.0;
+        double sumXY = 0.0;
+        double sumXX = 0.0;
+        for (int i = 0; i < n; i++) {
+            double logX = Math.log(x[i]);
+            double logY = Math.log(y[i]);
+            sumX += logX;
+            sumY += logY;
+            sumXY += logX * logY;
+            sumXX += logX * logX;
+        }
+        return (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
+    }
+}
@@ -15,6 +15,8 @@
 
 package care.better.platform.web.template.provider;
 
+import care.better.platform.web.template.registry.TemplateRegistry;
+
 /**
  * @author Primoz Delopst
  */
@@ -31,4 +33,29 @@ public interface WebTemplateProvider {
      * @return Template xml string
      */
     String provide(String template, String defaultLanguage) throws Exception;
+
+    /**
+     * Provide web template json string.
+     *
+     * @param templateRegistry Registry holding the template
+     * @param templateId       Template id
+     * @param defaultLanguage  Template default language
+     * @return Web template json string
+     */
+    default String provide(TemplateRegistry templateRegistry, String templateId, String defaultLanguage) throws Exception {
+        return provide(templateRegistry, templateId, null, defaultLanguage);
+    }
+
+    /**
+     * Provide web template json string.
+     *
+     * @param templateRegistry Registry holding the template
+     * @param templateId       Template id
+     * @param version          Template version, {@code null} for the template registered without one
+     * @param defaultLanguage  Template default language
+     * @return Web template json string
+     */
+    default String provide(TemplateRegistry templateRegistry, String templateId, String version, String defaultLanguage) throws Exception {
+        return provide(templateRegistry.lookup(templateId, version), defaultLanguage);
+    }
 }
@@ -0,0 +1,176 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.registry;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link TemplateRegistry} holding templates up to a maximum total weight. When the weight is exceeded, the least
+ * recently used templates are evicted. Evicted (or never registered) templates are loaded again with the
+ * {@link TemplateLoader}, if one is set.
+ */
+public class BoundedTemplateRegistry implements TemplateRegistry {
+    private final long maxWeight;
+    private final ToLongFunction<String> weigher;
+    private final TemplateLoader templateLoader;
+
+    private final Map<TemplateKey, String> templates = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Creates a registry holding at most {@code maxSize} templates.
+     *
+     * @param maxSize        Maximum number of templates
+     * @param templateLoader Loader used on lookup of a template that is not held, or {@code null}
+     * @return {@link BoundedTemplateRegistry}
+     */
+    public static BoundedTemplateRegistry withMaxSize(int maxSize, TemplateLoader templateLoader) {
+        return new BoundedTemplateRegistry(maxSize, template -> 1L, templateLoader);
+    }
+
+    /**
+     * Creates a registry holding templates up to {@code maxLength} characters of template xml in total.
+     *
+     * @param maxLength      Maximum total length of the held templates
+     * @param templateLoader Loader used on lookup of a template that is not held, or {@code null}
+     * @return {@link BoundedTemplateRegistry}
+     */
+    public static BoundedTemplateRegistry withMaxLength(long maxLength, TemplateLoader templateLoader) {
+        return new BoundedTemplateRegistry(maxLength, template -> (long)template.length(), templateLoader);
+    }
+
+    public BoundedTemplateRegistry(long maxWeight, ToLongFunction<String> weigher, TemplateLoader templateLoader) {
+        if (maxWeight <= 0L) {
+            throw new IllegalArgumentException("Max weight must be positive!");
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.templateLoader = templateLoader;
+    }
+
+    @Override
+    public synchronized void register(String templateId, String version, String template) {
+        put(new TemplateKey(templateId, version), template);
+    }
+
+    @Override
+    public String lookup(String templateId, String version) throws Exception {
+        TemplateKey key = new TemplateKey(templateId, version);
+        synchronized (this) {
+            String template = templates.get(key);
+            if (template != null) {
+                hitCount++;
+                return template;
+            }
+            missCount++;
+        }
+
+        if (templateLoader == null) {
+            throw new IllegalStateException(String.format("Template %s was not found.", key));
+        }
+        String template = templateLoader.load(templateId, version);
+        if (template == null) {
+            throw new IllegalStateException(String.format("Template %s was not found.", key));
+        }
+        synchronized (this) {
+            put(key, template);
+        }
+        return template;
+    }
+
+    @Override
+    public synchronized void evict(String templateId, String version) {
+        String template = templates.remove(new TemplateKey(templateId, version));
+        if (template != null) {
+            weight -= weigher.applyAsLong(template);
+        }
+    }
+
+    public synchronized int size() {
+        return templates.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private void put(TemplateKey key, String template) {
+        String previous = templates.put(key, template);
+        if (previous != null) {
+            weight -= weigher.applyAsLong(previous);
+        }
+        weight += weigher.applyAsLong(template);
+
+        Iterator<Map.Entry<TemplateKey, String>> iterator = templates.entrySet().iterator();
+        while (weight > maxWeight && templates.size() > 1) {
+            Map.Entry<TemplateKey, String> eldest = iterator.next();
+            iterator.remove();
+            weight -= weigher.applyAsLong(eldest.getValue());
+            evictionCount++;
+        }
+    }
+
+    private static final class TemplateKey {
+        private final String templateId;
+        private final String version;
+
+        private TemplateKey(String templateId, String version) {
+            this.templateId = Objects.requireNonNull(templateId, "Template id must not be null!");
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            TemplateKey that = (TemplateKey)o;
+            return templateId.equals(that.templateId) && Objects.equals(version, that.version);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(templateId, version);
+        }
+
+        @Override
+        public String toString() {
+            return version == null ? templateId : templateId + " (" + version + ')';
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.registry;
+
+/**
+ * Loads a template that is not (or no longer) held by a {@link TemplateRegistry}.
+ */
+@FunctionalInterface
+public interface TemplateLoader {
+
+    /**
+     * Loads the template.
+     *
+     * @param templateId Template id
+     * @param version    Template version or {@code null}
+     * @return Template xml string
+     */
+    String load(String templateId, String version) throws Exception;
+}
@@ -0,0 +1,82 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.registry;
+
+/**
+ * Registry of templates keyed by template id and version, so callers do not have to keep every template xml string on
+ * the heap and pass it on each call.
+ * <p>
+ * Templates registered without a version are stored under a {@code null} version.
+ */
+public interface TemplateRegistry {
+
+    /**
+     * Registers the template.
+     *
+     * @param templateId Template id
+     * @param version    Template version or {@code null}
+     * @param template   Template xml string
+     */
+    void register(String templateId, String version, String template);
+
+    /**
+     * Returns the registered template.
+     *
+     * @param templateId Template id
+     * @param version    Template version or {@code null}
+     * @return Template xml string
+     * @throws IllegalStateException if the template is not registered and cannot be loaded
+     */
+    String lookup(String templateId, String version) throws Exception;
+
+    /**
+     * Removes the template from the registry.
+     *
+     * @param templateId Template id
+     * @param version    Template version or {@code null}
+     */
+    void evict(String templateId, String version);
+
+    /**
+     * Registers the template without a version.
+     *
+     * @param templateId Template id
+     * @param template   Template xml string
+     */
+    default void register(String templateId, String template) {
+        register(templateId, null, template);
+    }
+
+    /**
+     * Returns the template registered without a version.
+     *
+     * @param templateId Template id
+     * @return Template xml string
+     * @throws IllegalStateException if the template is not registered and cannot be loaded
+     */
+    default String lookup(String templateId) throws Exception {
+        return lookup(templateId, null);
+    }
+
+    /**
+     * Removes the template registered without a version from the registry.
+     *
+     * @param templateId Template id
+     */
+    default void evict(String templateId) {
+        evict(templateId, null);
+    }
+}
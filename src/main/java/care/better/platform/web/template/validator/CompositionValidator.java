@@ -15,7 +15,14 @@
 
 package care.better.platform.web.template.validator;
 
+import care.better.platform.web.template.async.AsyncCalls;
+import care.better.platform.web.template.registry.TemplateRegistry;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * @author Primoz Delopst
@@ -41,4 +48,148 @@ public interface CompositionValidator {
      * @return {@code List} of {@code ValidationErrorDto}
      */
     List<ValidationErrorDto> validateWithParams(String template, String rawComposition, boolean strictTextValidation, boolean relaxedNameMatching) throws Exception;
+
+    /**
+     * Validates RAW composition with validation options. At most {@link ValidationOptions#getMaxErrors()} errors are returned,
+     * in the same order as they would be returned by the unbounded validation.
+     * <p>
+     * The default implementation validates the whole composition and truncates the result. Implementations that can stop
+     * walking the composition once the limit is reached should override this method.
+     *
+     * @param template          Template xml string
+     * @param rawComposition    RAW composition json string
+     * @param validationOptions Validation options
+     * @return {@code List} of {@code ValidationErrorDto}
+     */
+    default List<ValidationErrorDto> validate(String template, String rawComposition, ValidationOptions validationOptions) throws Exception {
+        List<ValidationErrorDto> errors = validationOptions.hasParams()
+                ? validateWithParams(template, rawComposition, validationOptions.isStrictTextValidation(), validationOptions.isRelaxedNameMatching())
+                : validate(template, rawComposition);
+        return errors.size() > validationOptions.getMaxErrors() ? new ArrayList<>(errors.subList(0, validationOptions.getMaxErrors())) : errors;
+    }
+
+    /**
+     * Checks whether RAW composition is valid, stopping at the first validation error.
+     *
+     * @param template       Template xml string
+     * @param rawComposition RAW composition json string
+     * @return {@code true} if the composition has no validation errors
+     */
+    default boolean isValid(String template, String rawComposition) throws Exception {
+        return validate(template, rawComposition, ValidationOptions.failFast()).isEmpty();
+    }
+
+    /**
+     * Validates RAW composition that was updated with FLAT delta values. Only the subtrees addressed by the delta paths and the
+     * cardinality constraints of their parents need to be checked, so the composition is expected to have been valid before the
+     * update. The returned errors are the same as the ones returned by {@link #validate(String, String)} for the updated
+     * composition.
+     * <p>
+     * The default implementation validates the whole composition. Implementations that can limit the validation to the
+     * changed subtrees should override this method.
+     *
+     * @param template       Template xml string
+     * @param rawComposition Updated RAW composition json string
+     * @param deltaPaths     FLAT paths of the delta values applied to the composition
+     * @return {@code List} of {@code ValidationErrorDto}
+     */
+    default List<ValidationErrorDto> validateDelta(String template, String rawComposition, Set<String> deltaPaths) throws Exception {
+        return validate(template, rawComposition);
+    }
+
+    /**
+     * Asynchronously validates RAW composition
+     *
+     * @param template       Template xml string
+     * @param rawComposition RAW composition json string
+     * @param executor       Executor the validation runs on
+     * @return {@code CompletableFuture} completed with the {@code List} of {@code ValidationErrorDto}
+     */
+    default CompletableFuture<List<ValidationErrorDto>> validateAsync(String template, String rawComposition, Executor executor) {
+        return AsyncCalls.supplyAsync(() -> validate(template, rawComposition), executor);
+    }
+
+    /**
+     * Asynchronously validates RAW composition with added parameters
+     *
+     * @param template       Template xml string
+     * @param rawComposition RAW composition json string
+     * @param strictTextValidation text matching setting
+     * @param relaxedNameMatching property name matching setting
+     * @param executor       Executor the validation runs on
+     * @return {@code CompletableFuture} completed with the {@code List} of {@code ValidationErrorDto}
+     */
+    default CompletableFuture<List<ValidationErrorDto>> validateWithParamsAsync(
+            String template,
+            String rawComposition,
+            boolean strictTextValidation,
+            boolean relaxedNameMatching,
+            Executor executor) {
+        return AsyncCalls.supplyAsync(() -> validateWithParams(template, rawComposition, strictTextValidation, relaxedNameMatching), executor);
+    }
+
+    /**
+     * Validates RAW composition
+     *
+     * @param templateRegistry Registry holding the template
+     * @param templateId       Template id
+     * @param rawComposition   RAW composition json string
+     * @return {@code List} of {@code ValidationErrorDto}
+     */
+    default List<ValidationErrorDto> validate(TemplateRegistry templateRegistry, String templateId, String rawComposition) throws Exception {
+        return validate(templateRegistry, templateId, null, rawComposition);
+    }
+
+    /**
+     * Validates RAW composition
+     *
+     * @param templateRegistry Registry holding the template
+     * @param templateId       Template id
+     * @param version          Template version, {@code null} for the template registered without one
+     * @param rawComposition   RAW composition json string
+     * @return {@code List} of {@code ValidationErrorDto}
+     */
+    default List<ValidationErrorDto> validate(TemplateRegistry templateRegistry, String templateId, String version, String rawComposition) throws Exception {
+        return validate(templateRegistry.lookup(templateId, version), rawComposition);
+    }
+
+    /**
+     * Validates RAW composition with added parameters
+     *
+     * @param templateRegistry Registry holding the template
+     * @param templateId       Template id
+     * @param rawComposition   RAW composition json string
+     * @param strictTextValidation text matching setting
+     * @param relaxedNameMatching property name matching setting
+     * @return {@code List} of {@code ValidationErrorDto}
+     */
+    default List<ValidationErrorDto> validateWithParams(
+            TemplateRegistry templateRegistry,
+            String templateId,
+            String rawComposition,
+            boolean strictTextValidation,
+            boolean relaxedNameMatching) throws Exception {
+        return validateWithParams(templateRegistry, templateId, null, rawComposition, strictTextValidation, relaxedNameMatching);
+    }
+
+    /**
+     * Validates RAW composition with added parameters
+     *
+     * @param templateRegistry Registry holding the template
+     * @param templateId       Template id
+     * @param version          Template version, {@code null} for the template registered without one
+     * @param rawComposition   RAW composition json string
+     * @param strictTextValidation text matching setting
+     * @param relaxedNameMatching property name matching setting
+     * @return {@code List} of {@code ValidationErrorDto}
+     */
+    default List<ValidationErrorDto> validateWithParams(
+            TemplateRegistry templateRegistry,
+            String templateId,
+            String version,
+            String rawComposition,
+            boolean strictTextValidation,
+            boolean relaxedNameMatching) throws Exception {
+        return validateWithParams(templateRegistry.lookup(templateId, version), rawComposition, strictTextValidation, relaxedNameMatching);
+    }
 }
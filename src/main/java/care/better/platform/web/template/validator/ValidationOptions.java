@@ -0,0 +1,136 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.validator;
+
+/**
+ * Options for RAW composition validation.
+ */
+public final class ValidationOptions {
+    /**
+     * Marks an unbounded number of validation errors.
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final ValidationOptions DEFAULT = new ValidationOptions(UNLIMITED, false, false, false);
+    private static final ValidationOptions FAIL_FAST = new ValidationOptions(1, false, false, false);
+
+    private final int maxErrors;
+    private final boolean params;
+    private final boolean strictTextValidation;
+    private final boolean relaxedNameMatching;
+
+    private ValidationOptions(int maxErrors, boolean params, boolean strictTextValidation, boolean relaxedNameMatching) {
+        if (maxErrors < 1) {
+            throw new IllegalArgumentException(String.format("Max errors must be positive, was %s.", maxErrors));
+        }
+        this.maxErrors = maxErrors;
+        this.params = params;
+        this.strictTextValidation = strictTextValidation;
+        this.relaxedNameMatching = relaxedNameMatching;
+    }
+
+    /**
+     * Returns options that collect all validation errors.
+     *
+     * @return {@code ValidationOptions}
+     */
+    public static ValidationOptions defaults() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns options that stop the validation at the first validation error.
+     *
+     * @return {@code ValidationOptions}
+     */
+    public static ValidationOptions failFast() {
+        return FAIL_FAST;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    public boolean isStrictTextValidation() {
+        return strictTextValidation;
+    }
+
+    public boolean isRelaxedNameMatching() {
+        return relaxedNameMatching;
+    }
+
+    /**
+     * Returns whether text matching and property name matching were set with {@link Builder#params(boolean, boolean)}. Only
+     * then the composition is validated with {@link CompositionValidator#validateWithParams(String, String, boolean, boolean)},
+     * otherwise it is validated with {@link CompositionValidator#validate(String, String)} and the validator defaults apply to
+     * both settings.
+     *
+     * @return {@code true} if validation parameters were set
+     */
+    public boolean hasParams() {
+        return params;
+    }
+
+    public boolean isFailFast() {
+        return maxErrors == 1;
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationOptions{" +
+                "maxErrors=" + (maxErrors == UNLIMITED ? "unlimited" : String.valueOf(maxErrors)) +
+                (hasParams() ? ", strictTextValidation=" + isStrictTextValidation() + ", relaxedNameMatching=" + isRelaxedNameMatching() : "") +
+                '}';
+    }
+
+    public static final class Builder {
+        private int maxErrors = UNLIMITED;
+        private boolean params;
+        private boolean strictTextValidation;
+        private boolean relaxedNameMatching;
+
+        private Builder() {
+        }
+
+        public Builder maxErrors(int maxErrors) {
+            this.maxErrors = maxErrors;
+            return this;
+        }
+
+        /**
+         * Sets text matching and property name matching together, since the validator defaults of the setting left out are not
+         * known.
+         *
+         * @param strictTextValidation text matching setting
+         * @param relaxedNameMatching  property name matching setting
+         * @return {@code Builder}
+         */
+        public Builder params(boolean strictTextValidation, boolean relaxedNameMatching) {
+            params = true;
+            this.strictTextValidation = strictTextValidation;
+            this.relaxedNameMatching = relaxedNameMatching;
+            return this;
+        }
+
+        public ValidationOptions build() {
+            return new ValidationOptions(maxErrors, params, strictTextValidation, relaxedNameMatching);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.CompositionCorpus.CompositionEntry;
+import care.better.platform.web.template.CompositionFixtures.Operation;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import care.better.platform.web.template.performance.AllocationMeter;
+import care.better.platform.web.template.performance.Percentiles;
+import care.better.platform.web.template.performance.PerformanceBudgets;
+import care.better.platform.web.template.performance.PerformanceReport;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.OptionalDouble;
+
+import static org.assertj.core.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks the bytes allocated per KB of input composition against the budgets supplied by the implementation in
+ * {@value PerformanceBudgets#DEFAULT_RESOURCE}, e.g. {@code allocation.convertFlatToRaw.bytesPerKb=200000}.
+ */
+@Tag("performance")
+@EnabledIfSystemProperty(named = PerformanceBudgets.ENABLED_PROPERTY, matches = "true")
+@ExtendWith(WebTemplateTestExtension.class)
+public class AllocationBudgetTest extends AbstractWebTemplateTest {
+
+    @Test
+    public void allocationBudgets(TestReporter testReporter) throws Exception {
+        assumeTrue(AllocationMeter.isSupported(), "Measurement of thread allocated memory is not supported by this JVM.");
+        PerformanceBudgets budgets = PerformanceBudgets.load()
+                .orElseThrow(() -> new IllegalStateException(String.format(
+                        "Performance budgets %s were not found on the classpath.",
+                        System.getProperty(PerformanceBudgets.RESOURCE_PROPERTY, PerformanceBudgets.DEFAULT_RESOURCE))));
+        int warmupIterations = budgets.getInt("allocation.warmup", 10);
+        int iterations = budgets.getInt("allocation.iterations", 10);
+
+        PerformanceReport report = new PerformanceReport(
+                "Median allocation per operation",
+                "template", "composition", "operation", "input KB", "allocated KB", "bytes/KB", "budget", "result");
+        boolean failed = false;
+
+        for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+            Map<String, Operation> operations = CompositionFixtures.operations(
+                    this,
+                    getFileContent(entry.getTemplateName()),
+                    entry.getDefaultLanguage(),
+                    getFileContent(entry.getCompositionName()));
+            for (Map.Entry<String, Operation> operation : operations.entrySet()) {
+                for (int i = 0; i < warmupIterations; i++) {
+                    operation.getValue().call();
+                }
+                double[] samples = new double[iterations];
+                for (int i = 0; i < iterations; i++) {
+                    samples[i] = AllocationMeter.measure(operation.getValue());
+                }
+
+                double allocatedBytes = new Percentiles(samples).get(50.0);
+                double inputKb = Math.max(operation.getValue().getInput().getBytes(StandardCharsets.UTF_8).length, 1) / 1024.0;
+                double bytesPerKb = allocatedBytes / inputKb;
+                OptionalDouble budget = budgets.getBudget("allocation." + operation.getKey() + ".bytesPerKb", "allocation.bytesPerKb");
+                boolean exceeded = budget.isPresent() && bytesPerKb > budget.getAsDouble();
+                failed |= exceeded;
+
+                report.addRow(
+                        entry.getTemplateName(),
+                        entry.getCompositionName(),
+                        operation.getKey(),
+                        inputKb,
+                        allocatedBytes / 1024.0,
+                        bytesPerKb,
+                        budget.isPresent() ? budget.getAsDouble() : "-",
+                        exceeded ? "FAILED" : "ok");
+            }
+        }
+
+        testReporter.publishEntry("allocation", report.toString());
+        if (failed) {
+            fail("Allocation budgets from %s were exceeded:%n%s", budgets.getResourceName(), report);
+        }
+    }
+}
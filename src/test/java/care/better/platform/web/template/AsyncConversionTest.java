@@ -0,0 +1,149 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import care.better.platform.web.template.validator.ValidationErrorDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(WebTemplateTestExtension.class)
+public class AsyncConversionTest extends AbstractWebTemplateTest {
+    private static final int CONVERSIONS = 200;
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> context;
+    private ExecutorService executor;
+
+    @Override
+    @BeforeEach
+    public void setUp() {
+        super.setUp();
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JodaModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        context = CompositionFixtures.context("sl");
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @Override
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        super.tearDown();
+    }
+
+    @Test
+    public void concurrentRawConversions() throws Exception {
+        String template = getFileContent("/res/Demo Vitals.opt");
+        String rawComposition = getFileContent("/res/Demo Vitals.json");
+
+        JsonNode expectedFlatComposition = objectMapper.readTree(getCompositionConverter().convertRawToFlat(template, "sl", rawComposition));
+        JsonNode expectedStructuredComposition = objectMapper.readTree(getCompositionConverter().convertRawToStructured(template, "sl", rawComposition));
+
+        List<CompletableFuture<String>> flatCompositions = new ArrayList<>();
+        List<CompletableFuture<String>> structuredCompositions = new ArrayList<>();
+        for (int i = 0; i < CONVERSIONS; i++) {
+            flatCompositions.add(getCompositionConverter().convertRawToFlatAsync(template, "sl", rawComposition, executor));
+            structuredCompositions.add(getCompositionConverter().convertRawToStructuredAsync(template, "sl", rawComposition, executor));
+        }
+
+        for (String flatComposition : join(flatCompositions)) {
+            assertThat(objectMapper.readTree(flatComposition)).isEqualTo(expectedFlatComposition);
+        }
+        for (String structuredComposition : join(structuredCompositions)) {
+            assertThat(objectMapper.readTree(structuredComposition)).isEqualTo(expectedStructuredComposition);
+        }
+    }
+
+    @Test
+    public void concurrentFlatConversions() throws Exception {
+        String template = getFileContent("/res/Demo Vitals.opt");
+        String flatComposition = getCompositionConverter().convertRawToFlat(template, "sl", getFileContent("/res/Demo Vitals.json"));
+
+        JsonNode expectedRawComposition = objectMapper.readTree(getCompositionConverter().convertFlatToRaw(template, "sl", flatComposition, context));
+        JsonNode expectedStructuredComposition = objectMapper.readTree(getCompositionConverter().convertFlatToStructured(template, "sl", flatComposition, context));
+
+        List<CompletableFuture<String>> rawCompositions = new ArrayList<>();
+        List<CompletableFuture<String>> structuredCompositions = new ArrayList<>();
+        for (int i = 0; i < CONVERSIONS; i++) {
+            rawCompositions.add(getCompositionConverter().convertFlatToRawAsync(template, "sl", flatComposition, context, executor));
+            structuredCompositions.add(getCompositionConverter().convertFlatToStructuredAsync(template, "sl", flatComposition, context, executor));
+        }
+
+        for (String rawComposition : join(rawCompositions)) {
+            assertThat(objectMapper.readTree(rawComposition)).isEqualTo(expectedRawComposition);
+        }
+        for (String structuredComposition : join(structuredCompositions)) {
+            assertThat(objectMapper.readTree(structuredComposition)).isEqualTo(expectedStructuredComposition);
+        }
+    }
+
+    @Test
+    public void concurrentValidations() throws Exception {
+        String template = getFileContent("/res/Demo Vitals.opt");
+        String rawComposition = getFileContent("/res/Demo Vitals.json");
+
+        List<String> expectedMessages = messages(getCompositionValidator().validate(template, rawComposition));
+
+        List<CompletableFuture<List<ValidationErrorDto>>> validations = new ArrayList<>();
+        for (int i = 0; i < CONVERSIONS; i++) {
+            validations.add(getCompositionValidator().validateAsync(template, rawComposition, executor));
+        }
+
+        for (List<ValidationErrorDto> errors : join(validations)) {
+            assertThat(messages(errors)).isEqualTo(expectedMessages);
+        }
+    }
+
+    @Test
+    public void failedConversion() throws Exception {
+        String template = getFileContent("/res/Demo Vitals.opt");
+
+        CompletableFuture<String> flatComposition = getCompositionConverter().convertRawToFlatAsync(template, "sl", "not a composition", executor);
+
+        assertThatThrownBy(flatComposition::join).isInstanceOf(CompletionException.class);
+        assertThat(flatComposition.isCompletedExceptionally()).isTrue();
+    }
+
+    private static <T> List<T> join(List<CompletableFuture<T>> futures) throws Exception {
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(5L, TimeUnit.MINUTES);
+        return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+
+    private static List<String> messages(List<ValidationErrorDto> errors) {
+        return errors.stream().map(ValidationErrorDto::getMessage).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,130 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.converter.ConversionResult;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(WebTemplateTestExtension.class)
+public class BatchConversionTest extends AbstractWebTemplateTest {
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> context;
+
+    @Override
+    @BeforeEach
+    public void setUp() {
+        super.setUp();
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JodaModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        context = CompositionFixtures.context("sl");
+    }
+
+    @Test
+    public void flatToRawBatch() throws Exception {
+        String template = getFileContent("/res/Demo Vitals2.opt");
+
+        List<String> flatCompositions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            flatCompositions.add(vitals(36.0 + i / 10.0));
+        }
+
+        List<ConversionResult<String>> results = getCompositionConverter().convertFlatToRawBatch(template, "en", flatCompositions, context);
+
+        assertThat(results).hasSize(flatCompositions.size());
+        for (int i = 0; i < results.size(); i++) {
+            ConversionResult<String> result = results.get(i);
+            assertThat(result.isSuccessful()).isTrue();
+            assertThat(result.getException()).isNull();
+            assertThat(objectMapper.readTree(result.getResult()))
+                    .isEqualTo(objectMapper.readTree(getCompositionConverter().convertFlatToRaw(template, "en", flatCompositions.get(i), context)));
+        }
+    }
+
+    @Test
+    public void flatToRawBatchWithFailures() throws Exception {
+        String template = getFileContent("/res/Demo Vitals2.opt");
+
+        List<ConversionResult<String>> results = getCompositionConverter().convertFlatToRawBatch(
+                template,
+                "en",
+                ImmutableList.of(vitals(37.1), "{\"vitals/vitals/body_temperature:0", vitals(37.2), "not a composition", vitals(37.3)),
+                context);
+
+        assertThat(results).hasSize(5);
+        assertThat(results).extracting(ConversionResult::isSuccessful).containsExactly(true, false, true, false, true);
+        assertThat(results.get(1).getException()).isNotNull();
+        assertThat(results.get(3).getException()).isNotNull();
+        assertThatThrownBy(() -> results.get(1).getResult()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(objectMapper.readTree(results.get(2).getResult()))
+                .isEqualTo(objectMapper.readTree(getCompositionConverter().convertFlatToRaw(template, "en", vitals(37.2), context)));
+    }
+
+    @Test
+    public void rawToFlatBatchWithFailures() throws Exception {
+        String template = getFileContent("/res/Demo Vitals.opt");
+        String rawComposition = getFileContent("/res/Demo Vitals.json");
+        String dataValueComposition = getFileContent("/res/DataValueTestComposition.json");
+
+        List<ConversionResult<String>> results = getCompositionConverter().convertRawToFlatBatch(
+                template,
+                "sl",
+                ImmutableList.of(rawComposition, "not a composition", dataValueComposition));
+
+        assertThat(results).extracting(ConversionResult::isSuccessful).containsExactly(true, false, true);
+        assertThat(results.get(1).getException()).isNotNull();
+        assertThat(objectMapper.readTree(results.get(0).getResult()))
+                .isEqualTo(objectMapper.readTree(getCompositionConverter().convertRawToFlat(template, "sl", rawComposition)));
+        assertThat(objectMapper.readTree(results.get(2).getResult()))
+                .isEqualTo(objectMapper.readTree(getCompositionConverter().convertRawToFlat(template, "sl", dataValueComposition)));
+    }
+
+    @Test
+    public void emptyBatch() throws Exception {
+        String template = getFileContent("/res/Demo Vitals.opt");
+
+        assertThat(getCompositionConverter().convertRawToFlatBatch(template, "sl", Collections.emptyList())).isEmpty();
+        assertThat(getCompositionConverter().convertFlatToRawBatch(template, "sl", Collections.emptyList(), context)).isEmpty();
+    }
+
+    private String vitals(double temperature) throws Exception {
+        Map<String, String> flatComposition = ImmutableMap.<String, String>builder()
+                .put("vitals/context/setting|code", "238")
+                .put("vitals/context/setting|value", "other care")
+                .put("vitals/vitals/body_temperature:0/any_event:0/temperature|magnitude", String.valueOf(temperature))
+                .put("vitals/vitals/body_temperature:0/any_event:0/temperature|unit", "°C")
+                .build();
+        return objectMapper.writeValueAsString(flatComposition);
+    }
+}
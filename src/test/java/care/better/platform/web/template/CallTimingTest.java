@@ -0,0 +1,80 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.converter.CompositionConverter;
+import care.better.platform.web.template.extension.CallTimings;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import care.better.platform.web.template.provider.WebTemplateProvider;
+import care.better.platform.web.template.validator.CompositionValidator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@ExtendWith(WebTemplateTestExtension.class)
+public class CallTimingTest extends AbstractWebTemplateTest {
+    private static boolean timed;
+
+    @RegisterExtension
+    static final BeforeAllCallback TIMING = extensionContext ->
+            timed = extensionContext.getConfigurationParameter(CallTimings.CONFIGURATION_PARAMETER).map(Boolean::parseBoolean).orElse(false);
+
+    @Test
+    public void timedInstances() {
+        assertThat(Proxy.isProxyClass(getCompositionConverter().getClass())).isEqualTo(timed);
+        assertThat(Proxy.isProxyClass(getWebTemplateProvider().getClass())).isEqualTo(timed);
+        assertThat(Proxy.isProxyClass(getCompositionValidator().getClass())).isEqualTo(timed);
+        assertThat(getCompositionConverter()).isEqualTo(getCompositionConverter());
+        assertThat(getCompositionConverter().hashCode()).isEqualTo(getCompositionConverter().hashCode());
+    }
+
+    @Test
+    public void sameResults() throws Exception {
+        String template = getFileContent("/res/Demo Vitals.opt");
+        String rawComposition = getFileContent("/res/Demo Vitals.json");
+        CompositionConverter compositionConverter = load(CompositionConverter.class);
+
+        assertThat(getObjectMapper().readTree(getCompositionConverter().convertRawToFlat(template, "sl", rawComposition)))
+                .isEqualTo(getObjectMapper().readTree(compositionConverter.convertRawToFlat(template, "sl", rawComposition)));
+        assertThat(getObjectMapper().readTree(getWebTemplateProvider().provide(template, "sl")))
+                .isEqualTo(getObjectMapper().readTree(load(WebTemplateProvider.class).provide(template, "sl")));
+        assertThat(getCompositionValidator().validate(template, rawComposition))
+                .hasSameSizeAs(load(CompositionValidator.class).validate(template, rawComposition));
+    }
+
+    @Test
+    public void sameExceptions() throws Exception {
+        String template = getFileContent("/res/Demo Vitals.opt");
+
+        Throwable expected = catchThrowable(() -> load(CompositionConverter.class).convertRawToFlat(template, "sl", "not a composition"));
+        Throwable thrown = catchThrowable(() -> getCompositionConverter().convertRawToFlat(template, "sl", "not a composition"));
+
+        assertThat(thrown).isNotNull().isExactlyInstanceOf(expected.getClass());
+    }
+
+    private static <T> T load(Class<T> interfaceClass) {
+        AtomicReference<T> instance = new AtomicReference<>();
+        new WebTemplateTestExtension().invokeSetter(instance::set, interfaceClass);
+        return instance.get();
+    }
+}
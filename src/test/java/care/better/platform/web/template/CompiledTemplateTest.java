@@ -0,0 +1,134 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.CompositionCorpus.CompositionEntry;
+import care.better.platform.web.template.converter.CompiledTemplate;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(WebTemplateTestExtension.class)
+public class CompiledTemplateTest extends AbstractWebTemplateTest {
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> context;
+
+    @Override
+    @BeforeEach
+    public void setUp() {
+        super.setUp();
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JodaModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        context = CompositionFixtures.context("en");
+    }
+
+    @Test
+    public void compiledTemplateKeepsId() throws Exception {
+        CompiledTemplate compiledTemplate = getCompositionConverter().compile(getFileContent("/res/Demo Vitals.opt"), "en");
+
+        assertThat(compiledTemplate.getTemplateId()).isEqualTo("Demo Vitals");
+        assertThat(compiledTemplate.getDefaultLanguage()).isEqualTo("en");
+    }
+
+    @Test
+    public void rawConversions() throws Exception {
+        for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+            String template = getFileContent(entry.getTemplateName());
+            String rawComposition = getFileContent(entry.getCompositionName());
+            CompiledTemplate compiledTemplate = getCompositionConverter().compile(template, entry.getDefaultLanguage());
+
+            assertJsonEqual(
+                    entry,
+                    getCompositionConverter().convertRawToFlat(compiledTemplate, rawComposition),
+                    getCompositionConverter().convertRawToFlat(template, entry.getDefaultLanguage(), rawComposition));
+            assertJsonEqual(
+                    entry,
+                    getCompositionConverter().convertRawToStructured(compiledTemplate, rawComposition),
+                    getCompositionConverter().convertRawToStructured(template, entry.getDefaultLanguage(), rawComposition));
+        }
+    }
+
+    @Test
+    public void flatConversions() throws Exception {
+        for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+            String template = getFileContent(entry.getTemplateName());
+            String flatComposition = getCompositionConverter().convertRawToFlat(template, entry.getDefaultLanguage(), getFileContent(entry.getCompositionName()));
+            CompiledTemplate compiledTemplate = getCompositionConverter().compile(template, entry.getDefaultLanguage());
+
+            assertJsonEqual(
+                    entry,
+                    getCompositionConverter().convertFlatToRaw(compiledTemplate, flatComposition, context),
+                    getCompositionConverter().convertFlatToRaw(template, entry.getDefaultLanguage(), flatComposition, context));
+            assertJsonEqual(
+                    entry,
+                    getCompositionConverter().convertFlatToStructured(compiledTemplate, flatComposition, context),
+                    getCompositionConverter().convertFlatToStructured(template, entry.getDefaultLanguage(), flatComposition, context));
+        }
+    }
+
+    @Test
+    public void structuredConversions() throws Exception {
+        for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+            String template = getFileContent(entry.getTemplateName());
+            String structuredComposition = getCompositionConverter().convertRawToStructured(
+                    template,
+                    entry.getDefaultLanguage(),
+                    getFileContent(entry.getCompositionName()));
+            CompiledTemplate compiledTemplate = getCompositionConverter().compile(template, entry.getDefaultLanguage());
+
+            assertJsonEqual(
+                    entry,
+                    getCompositionConverter().convertStructuredToRaw(compiledTemplate, structuredComposition, context),
+                    getCompositionConverter().convertStructuredToRaw(template, entry.getDefaultLanguage(), structuredComposition, context));
+            assertJsonEqual(
+                    entry,
+                    getCompositionConverter().convertStructuredToFlat(compiledTemplate, structuredComposition, context),
+                    getCompositionConverter().convertStructuredToFlat(template, entry.getDefaultLanguage(), structuredComposition, context));
+        }
+    }
+
+    @Test
+    public void updateRawComposition() throws Exception {
+        for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+            String template = getFileContent(entry.getTemplateName());
+            String rawComposition = getFileContent(entry.getCompositionName());
+            Map<String, Object> deltaValues = objectMapper.readValue(
+                    getCompositionConverter().convertRawToFlat(template, entry.getDefaultLanguage(), rawComposition),
+                    new TypeReference<Map<String, Object>>() {});
+            CompiledTemplate compiledTemplate = getCompositionConverter().compile(template, entry.getDefaultLanguage());
+
+            assertJsonEqual(
+                    entry,
+                    getCompositionConverter().updateRawComposition(compiledTemplate, rawComposition, context, deltaValues),
+                    getCompositionConverter().updateRawComposition(template, entry.getDefaultLanguage(), rawComposition, context, deltaValues));
+        }
+    }
+
+    private void assertJsonEqual(CompositionEntry entry, String actual, String expected) throws Exception {
+        assertThat(objectMapper.readTree(actual)).as(entry.toString()).isEqualTo(objectMapper.readTree(expected));
+    }
+}
@@ -0,0 +1,211 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.context.CompositionBuilderContext;
+import care.better.platform.web.template.context.CompositionBuilderContextKey;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(WebTemplateTestExtension.class)
+public class CompositionBuilderContextTest extends AbstractWebTemplateTest {
+
+    private ObjectMapper objectMapper;
+    private List<Map<String, Object>> legacyContexts;
+
+    @Override
+    @BeforeEach
+    public void setUp() {
+        super.setUp();
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JodaModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        legacyContexts = ImmutableList.<Map<String, Object>>of(
+                ImmutableMap.<String, Object>of(
+                        CompositionBuilderContextKey.LANGUAGE.getKey(), "sl",
+                        CompositionBuilderContextKey.TERRITORY.getKey(), "SI",
+                        CompositionBuilderContextKey.COMPOSER_NAME.getKey(), "composer",
+                        CompositionBuilderContextKey.START_TIME.getKey(), OffsetDateTime.of(2020, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC)),
+                ImmutableMap.<String, Object>builder()
+                        .put(CompositionBuilderContextKey.LANGUAGE.getKey(), "sl")
+                        .put(CompositionBuilderContextKey.TERRITORY.getKey(), "SI")
+                        .put(CompositionBuilderContextKey.COMPOSER_NAME.getKey(), "composer")
+                        .put(CompositionBuilderContextKey.START_TIME.getKey(), OffsetDateTime.of(2017, 11, 1, 1, 30, 0, 0, ZoneOffset.UTC))
+                        .put(CompositionBuilderContextKey.END_TIME.getKey(), OffsetDateTime.of(2017, 12, 1, 1, 30, 0, 0, ZoneOffset.UTC))
+                        .put(CompositionBuilderContextKey.LOCATION.getKey(), "I am here!")
+                        .build(),
+                ImmutableMap.<String, Object>builder()
+                        .put(CompositionBuilderContextKey.LANGUAGE.getKey(), "en")
+                        .put(CompositionBuilderContextKey.TERRITORY.getKey(), "IE")
+                        .put(CompositionBuilderContextKey.COMPOSER_NAME.getKey(), "composer")
+                        .put(CompositionBuilderContextKey.START_TIME.getKey(), OffsetDateTime.of(2020, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC))
+                        .put(CompositionBuilderContextKey.LOCALE.getKey(), new Locale("en", "IE"))
+                        .put(CompositionBuilderContextKey.ISM_TRANSITION.getKey(), "openehr::524::initial")
+                        .put(CompositionBuilderContextKey.ID_SCHEME.getKey(), "local_sch")
+                        .put(CompositionBuilderContextKey.ID_NAMESPACE.getKey(), "local_ns")
+                        .build());
+    }
+
+    @Test
+    public void flatToRawParity() throws Exception {
+        String template = getFileContent("/res/Demo Vitals.opt");
+        String flatComposition = objectMapper.writeValueAsString(ImmutableMap.<String, Object>builder()
+                                                                         .put("vitals/vitals/body_temperature/any_event/temperature|magnitude", 39.1)
+                                                                         .put("vitals/vitals/body_temperature/any_event/temperature|unit", "°C")
+                                                                         .put("vitals/vitals/body_temperature/any_event/body_exposure", "at0031")
+                                                                         .build());
+
+        for (Map<String, Object> legacyContext : legacyContexts) {
+            CompositionBuilderContext context = CompositionBuilderContext.fromMap(legacyContext);
+
+            assertThat(objectMapper.readTree(getCompositionConverter().convertFlatToRawWithContext(template, "sl", flatComposition, context)))
+                    .as(legacyContext.toString())
+                    .isEqualTo(objectMapper.readTree(getCompositionConverter().convertFlatToRaw(template, "sl", flatComposition, legacyContext)));
+            assertThat(objectMapper.readTree(getCompositionConverter().convertFlatToStructuredWithContext(template, "sl", flatComposition, context)))
+                    .as(legacyContext.toString())
+                    .isEqualTo(objectMapper.readTree(getCompositionConverter().convertFlatToStructured(template, "sl", flatComposition, legacyContext)));
+        }
+    }
+
+    @Test
+    public void structuredToRawParity() throws Exception {
+        String template = getFileContent("/res/TM - Discharge Activity Plan Encounter.xml");
+        String structuredComposition = getFileContent("/res/careplan_activities.json");
+
+        Map<String, Object> legacyContext = ImmutableMap.<String, Object>builder()
+                .put(CompositionBuilderContextKey.LANGUAGE.getKey(), "sl")
+                .put(CompositionBuilderContextKey.TERRITORY.getKey(), "SI")
+                .put(CompositionBuilderContextKey.COMPOSER_NAME.getKey(), "composer")
+                .put(CompositionBuilderContextKey.START_TIME.getKey(), OffsetDateTime.of(2020, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC))
+                .put(CompositionBuilderContextKey.ISM_TRANSITION.getKey(), "openehr::524::initial")
+                .put(CompositionBuilderContextKey.INSTRUCTIONS_NARRATIVE_PROVIDER.getKey(), "narrative")
+                .put(CompositionBuilderContextKey.ACTIVITY_TIMING_PROVIDER.getKey(), "timing::R0").build();
+        CompositionBuilderContext context = CompositionBuilderContext.builder()
+                .language("sl")
+                .territory("SI")
+                .composerName("composer")
+                .startTime(OffsetDateTime.of(2020, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC))
+                .ismTransition("openehr::524::initial")
+                .instructionsNarrativeProvider("narrative")
+                .activityTimingProvider("timing::R0")
+                .build();
+
+        assertThat(context.toMap()).isEqualTo(legacyContext);
+        assertThat(objectMapper.readTree(getCompositionConverter().convertStructuredToRawWithContext(template, "en", structuredComposition, context)))
+                .isEqualTo(objectMapper.readTree(getCompositionConverter().convertStructuredToRaw(template, "en", structuredComposition, legacyContext)));
+        assertThat(objectMapper.readTree(getCompositionConverter().convertStructuredToFlatWithContext(template, "en", structuredComposition, context)))
+                .isEqualTo(objectMapper.readTree(getCompositionConverter().convertStructuredToFlat(template, "en", structuredComposition, legacyContext)));
+    }
+
+    @Test
+    public void updateRawCompositionParity() throws Exception {
+        String template = getFileContent("/res/TM - Simple Body Observation2.xml");
+        Map<String, Object> legacyContext = legacyContexts.get(0);
+        CompositionBuilderContext context = CompositionBuilderContext.fromMap(legacyContext);
+        Map<String, Object> flatComposition = objectMapper.readValue(
+                getFileContent("/res/Simple Body Observation2(1).json"),
+                new TypeReference<Map<String, Object>>() {});
+        String rawComposition = getCompositionConverter().convertFlatToRawWithContext(template, "en", objectMapper.writeValueAsString(flatComposition), context);
+
+        Map<String, Object> delta = ImmutableMap.<String, Object>builder()
+                .put("simple_body_observation/simptomi_bolečine/pain/comments", "pain comments")
+                .put("simple_body_observation/simptomi_bolečine/pain/intensity/pain_scale_method|code", "at0.0.202")
+                .put("simple_body_observation/simptomi_bolečine/pain/intensity/scale_score", 3)
+                .build();
+
+        assertThat(objectMapper.readTree(getCompositionConverter().updateRawCompositionWithContext(template, "en", rawComposition, context, delta)))
+                .isEqualTo(objectMapper.readTree(getCompositionConverter().updateRawComposition(template, "en", rawComposition, legacyContext, delta)));
+    }
+
+    @Test
+    public void reusedContext() throws Exception {
+        String template = getFileContent("/res/Demo Vitals2.opt");
+        CompositionBuilderContext context = CompositionBuilderContext.builder()
+                .language("sl")
+                .territory("SI")
+                .composerName("composer")
+                .startTime(OffsetDateTime.of(2020, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC))
+                .build();
+        String flatComposition = objectMapper.writeValueAsString(ImmutableMap.of(
+                "vitals/vitals/body_temperature:0/any_event:0/temperature|magnitude", "37.7",
+                "vitals/vitals/body_temperature:0/any_event:0/temperature|unit", "°C"));
+
+        JsonNode expected = objectMapper.readTree(getCompositionConverter().convertFlatToRaw(template, "en", flatComposition, context.toMap()));
+        for (int i = 0; i < 100; i++) {
+            assertThat(objectMapper.readTree(getCompositionConverter().convertFlatToRawWithContext(template, "en", flatComposition, context))).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void fromMap() {
+        for (Map<String, Object> legacyContext : legacyContexts) {
+            assertThat(CompositionBuilderContext.fromMap(legacyContext).toMap()).isEqualTo(legacyContext);
+        }
+
+        CompositionBuilderContext context = CompositionBuilderContext.fromMap(ImmutableMap.of(
+                CompositionBuilderContextKey.START_TIME.getKey(), "2017-11-01T01:30:00Z",
+                CompositionBuilderContextKey.LOCALE.getKey(), "en_IE",
+                CompositionBuilderContextKey.ACTION_TO_INSTRUCTION_HANDLER.getKey(), true));
+
+        assertThat(context.getStartTime()).isEqualTo(OffsetDateTime.of(2017, 11, 1, 1, 30, 0, 0, ZoneOffset.UTC));
+        assertThat(context.getLocale()).isEqualTo(new Locale("en", "IE"));
+        assertThat(context.getActionToInstructionHandler()).isEqualTo(true);
+        assertThat(context.contains(CompositionBuilderContextKey.LANGUAGE)).isFalse();
+        assertThat(CompositionBuilderContext.fromMap(ImmutableMap.of())).isSameAs(CompositionBuilderContext.empty());
+    }
+
+    @Test
+    public void invalidValues() {
+        assertThatThrownBy(() -> CompositionBuilderContext.fromMap(ImmutableMap.of("unknown", "value")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unknown");
+        assertThatThrownBy(() -> CompositionBuilderContext.fromMap(ImmutableMap.of(CompositionBuilderContextKey.START_TIME.getKey(), "yesterday")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(CompositionBuilderContextKey.START_TIME.getKey());
+        assertThatThrownBy(() -> CompositionBuilderContext.builder().set(CompositionBuilderContextKey.LANGUAGE, Locale.ENGLISH))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(CompositionBuilderContextKey.LANGUAGE.getKey());
+        assertThatThrownBy(() -> CompositionBuilderContext.builder().ismTransition("initial").build())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(CompositionBuilderContextKey.ISM_TRANSITION.getKey());
+        assertThatThrownBy(() -> CompositionBuilderContext.builder().activityTimingProvider("R0").build())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(CompositionBuilderContextKey.ACTIVITY_TIMING_PROVIDER.getKey());
+        assertThatThrownBy(() -> CompositionBuilderContext.builder().encoding("no-such-encoding").build())
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CompositionBuilderContext.fromMap(ImmutableMap.of(CompositionBuilderContextKey.ACTION_TO_INSTRUCTION_HANDLER.getKey(), "handler")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(CompositionBuilderContextKey.ACTION_TO_INSTRUCTION_HANDLER.getKey());
+    }
+}
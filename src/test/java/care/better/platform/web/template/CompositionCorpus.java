@@ -0,0 +1,207 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * Template and composition resources shared by the conformance tests that run over the whole corpus.
+ */
+final class CompositionCorpus {
+
+    /**
+     * All templates with their original language.
+     */
+    static final List<TemplateEntry> TEMPLATES = ImmutableList.of(
+            new TemplateEntry("/res/Across - Visual Acuity Report.opt", "en"),
+            new TemplateEntry("/res/action test.opt", "en"),
+            new TemplateEntry("/res/Adverse Reaction List.v1.opt", "en"),
+            new TemplateEntry("/res/adverse3.opt", "en"),
+            new TemplateEntry("/res/any_element.opt", "en"),
+            new TemplateEntry("/res/any_element_someconstrained.opt", "en"),
+            new TemplateEntry("/res/Apgar_1.opt", "en"),
+            new TemplateEntry("/res/br-moh1.xml", "en"),
+            new TemplateEntry("/res/CDA Document.opt", "en"),
+            new TemplateEntry("/res/clinical-summary-events.opt", "en"),
+            new TemplateEntry("/res/clinical-summary-events2.opt", "en"),
+            new TemplateEntry("/res/conformance test.xml", "en"),
+            new TemplateEntry("/res/ConformanceTesttemplate.opt", "en"),
+            new TemplateEntry("/res/Cytology Report.xml", "en"),
+            new TemplateEntry("/res/Demo Vitals term mapping.opt", "en"),
+            new TemplateEntry("/res/Demo Vitals.opt", "en"),
+            new TemplateEntry("/res/Demo Vitals.xml", "en"),
+            new TemplateEntry("/res/Demo Vitals2.opt", "en"),
+            new TemplateEntry("/res/Diabetes Encounter ver2.xml", "en"),
+            new TemplateEntry("/res/Diagnosis.opt", "en"),
+            new TemplateEntry("/res/DRS Fundus Severity for od form.xml", "en"),
+            new TemplateEntry("/res/EHR_information_431.opt", "ru"),
+            new TemplateEntry("/res/Falls care plan.opt", "en"),
+            new TemplateEntry("/res/Forms Demo.opt", "en"),
+            new TemplateEntry("/res/GEL Cancer diagnosis input.opt", "en"),
+            new TemplateEntry("/res/GEL_-_Generic_Lab_Report_import.v0.opt", "en"),
+            new TemplateEntry("/res/Generic service request.v0.xml", "en"),
+            new TemplateEntry("/res/Headache.opt", "en"),
+            new TemplateEntry("/res/IDCR - Cancer MDT Output Report.v0 ordered.xml", "en"),
+            new TemplateEntry("/res/IDCR - Cancer MDT Output Report.v0.xml", "en"),
+            new TemplateEntry("/res/IDCR_-_Laboratory_Test_Report.v0.opt", "en"),
+            new TemplateEntry("/res/inference_engine_result_set3.opt", "en"),
+            new TemplateEntry("/res/initial2.opt", "en"),
+            new TemplateEntry("/res/Laboratory report.xml", "en"),
+            new TemplateEntry("/res/Liver Donor.xml", "en"),
+            new TemplateEntry("/res/Liver Recipient Information.xml", "en"),
+            new TemplateEntry("/res/MED - Document.opt", "en"),
+            new TemplateEntry("/res/MED - Medication Order-choice.opt", "en"),
+            new TemplateEntry("/res/MED - Medication Order.opt", "en"),
+            new TemplateEntry("/res/MED - Perinatal history Summary.opt", "en"),
+            new TemplateEntry("/res/medication_list.opt", "en"),
+            new TemplateEntry("/res/Medications.xml", "en"),
+            new TemplateEntry("/res/Melanoma ST.xml", "en"),
+            new TemplateEntry("/res/MSE - Adverse Drug Reaction Report.opt", "en"),
+            new TemplateEntry("/res/MSE - Drug Related Problem Report.opt", "en"),
+            new TemplateEntry("/res/MSE - Initial Medication Safety Report.opt", "en"),
+            new TemplateEntry("/res/MSE - Medication Error Report.opt", "en"),
+            new TemplateEntry("/res/MSE - Medication Event Case Summary.opt", "en"),
+            new TemplateEntry("/res/NSI_test_information.opt", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.prevaccinal_examination.opt", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.prevaccinal_examination.v1.xml", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_anamnesis_gynecologist.opt", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_cardiologist_examination.v3-fix.xml", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_cardiologist_examination.v3.xml", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_dental_formule.v1.xml", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_dermatologist_examination.v1.xml", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_endocrinologist_examination (0-12).opt", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_endocrinologist_examination (1-17).opt", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_gynecologist_anamnesis_pregnant .v1.xml", "en"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_gynecologist_prophylactic_examination.v1.xml", "en"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_interval_quantity_test.v1.xml", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_neurologist_examination(1-17)_lanit.v1-new.opt", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_new_physiatrist_examination.v1.xml", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_outpatient_reference_form_025_1.v4.xml", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_sociomedical_assessment_referral.v1.xml", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_specialist_examination.opt", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_suspension_drug_therapy.v1.xml", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.t_therapist_examination.opt", "ru"),
+            new TemplateEntry("/res/openEHR-EHR-COMPOSITION.vaccination_card.opt", "ru"),
+            new TemplateEntry("/res/opt referral.xml", "ru"),
+            new TemplateEntry("/res/Patient Diagnosis (composition).xml", "en"),
+            new TemplateEntry("/res/persistent.opt", "en"),
+            new TemplateEntry("/res/Request_for_Pancreas_Special_Urgency_Listing.opt", "en"),
+            new TemplateEntry("/res/RES Primary Hip Arthroplasty Report.xml", "pt"),
+            new TemplateEntry("/res/Service Request.xml", "en"),
+            new TemplateEntry("/res/Service.xml", "en"),
+            new TemplateEntry("/res/Test constrained subject.opt", "en"),
+            new TemplateEntry("/res/Test Template.xml", "en"),
+            new TemplateEntry("/res/test_statuses.opt", "en"),
+            new TemplateEntry("/res/Testing Template N.opt", "en"),
+            new TemplateEntry("/res/Testing Template N1.opt", "en"),
+            new TemplateEntry("/res/Testing Template N5.opt", "en"),
+            new TemplateEntry("/res/Testing Template N6.opt", "en"),
+            new TemplateEntry("/res/Testing Template.opt", "en"),
+            new TemplateEntry("/res/Testing.opt", "en"),
+            new TemplateEntry("/res/TM - Discharge Activity Plan Encounter.xml", "en"),
+            new TemplateEntry("/res/TM - Discharge Plan Encounter.xml", "en"),
+            new TemplateEntry("/res/TM - Simple Body Observation2.xml", "en"),
+            new TemplateEntry("/res/TM - Simple Vital Functions.opt", "en"),
+            new TemplateEntry("/res/TMC - Clinical Notes Report.opt", "en"),
+            new TemplateEntry("/res/TMC - ICU -Ventilator device Report.opt", "en"),
+            new TemplateEntry("/res/TMDS - Breast pre-operative conference report.opt", "en"),
+            new TemplateEntry("/res/TMDS Breast - Radiographer Mammography Report.xml", "en"),
+            new TemplateEntry("/res/Vital Signs.xml", "en"),
+            new TemplateEntry("/res/XDS Document.opt", "en"),
+            new TemplateEntry("/res/ZN - Assessment Scales Encounter.opt", "en"),
+            new TemplateEntry("/res/ZN - Child Growth Encounter.xml", "en"),
+            new TemplateEntry("/res/ZN - Nursing careplan Encounter.xml", "en"),
+            new TemplateEntry("/res/ZN - Restraint.opt", "en"),
+            new TemplateEntry("/res/ZN - Vital Functions Encounter.xml", "en"));
+
+    /**
+     * RAW compositions that are valid for their template.
+     */
+    static final List<CompositionEntry> RAW_COMPOSITIONS = ImmutableList.of(
+            new CompositionEntry("/res/Demo Vitals.opt", "sl", "/res/Demo Vitals.json"),
+            new CompositionEntry("/res/Demo Vitals.opt", "sl", "/res/DataValueTestComposition.json"),
+            new CompositionEntry("/res/Demo Vitals.xml", "en", "/res/DemoVitalsComposition.json"),
+            new CompositionEntry("/res/ZN - Child Growth Encounter.xml", "en", "/res/Child Growth.json"),
+            new CompositionEntry("/res/ZN - Vital Functions Encounter.xml", "en", "/res/Vital Functions.json"),
+            new CompositionEntry("/res/ZN - Assessment Scales Encounter.opt", "en", "/res/Assessment Scales.json"),
+            new CompositionEntry("/res/ZN - Nursing careplan Encounter.xml", "en", "/res/CompositionCareplan.json"),
+            new CompositionEntry("/res/TM - Discharge Plan Encounter.xml", "en", "/res/Discharge Plan Encounter.json"),
+            new CompositionEntry("/res/medication_list.opt", "sv", "/res/Medications.json"),
+            new CompositionEntry("/res/action test.opt", "en", "/res/action_test.json"),
+            new CompositionEntry("/res/ConformanceTesttemplate.opt", "en", "/res/conformance test.json"),
+            new CompositionEntry("/res/clinical-summary-events2.opt", "en", "/res/localMissingValue.json"),
+            new CompositionEntry("/res/DRS Fundus Severity for od form.xml", "en", "/res/privantis.json"),
+            new CompositionEntry("/res/TMC - Clinical Notes Report.opt", "en", "/res/xoredComposition.json"),
+            new CompositionEntry("/res/Vital Signs.xml", "en", "/res/proportion.json"),
+            new CompositionEntry("/res/openEHR-EHR-COMPOSITION.t_specialist_examination.opt", "ru", "/res/ru-compositionWithRelaxedNames.json"));
+
+    private CompositionCorpus() {
+    }
+
+    static final class TemplateEntry {
+        private final String templateName;
+        private final String defaultLanguage;
+
+        TemplateEntry(String templateName, String defaultLanguage) {
+            this.templateName = templateName;
+            this.defaultLanguage = defaultLanguage;
+        }
+
+        String getTemplateName() {
+            return templateName;
+        }
+
+        String getDefaultLanguage() {
+            return defaultLanguage;
+        }
+
+        @Override
+        public String toString() {
+            return templateName;
+        }
+    }
+
+    static final class CompositionEntry {
+        private final String templateName;
+        private final String defaultLanguage;
+        private final String compositionName;
+
+        CompositionEntry(String templateName, String defaultLanguage, String compositionName) {
+            this.templateName = templateName;
+            this.defaultLanguage = defaultLanguage;
+            this.compositionName = compositionName;
+        }
+
+        String getTemplateName() {
+            return templateName;
+        }
+
+        String getDefaultLanguage() {
+            return defaultLanguage;
+        }
+
+        String getCompositionName() {
+            return compositionName;
+        }
+
+        @Override
+        public String toString() {
+            return templateName + " -> " + compositionName;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.context.CompositionBuilderContextKey;
+import com.google.common.collect.ImmutableMap;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Composition builder context and composition operations shared by the tests that run every conversion of a composition.
+ */
+final class CompositionFixtures {
+    static final OffsetDateTime START_TIME = OffsetDateTime.of(2020, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    private CompositionFixtures() {
+    }
+
+    /**
+     * Returns a composition builder context with the language, territory {@code SI}, a composer and a fixed start time.
+     *
+     * @param language Composition language
+     * @return Composition builder context
+     */
+    static Map<String, Object> context(String language) {
+        return ImmutableMap.of(
+                CompositionBuilderContextKey.LANGUAGE.getKey(), language,
+                CompositionBuilderContextKey.TERRITORY.getKey(), "SI",
+                CompositionBuilderContextKey.COMPOSER_NAME.getKey(), "composer",
+                CompositionBuilderContextKey.START_TIME.getKey(), START_TIME);
+    }
+
+    /**
+     * Returns the conversions of a RAW composition and of the FLAT and STRUCTURED compositions converted from it, the update of
+     * the RAW composition with no values and its validation, by operation name.
+     *
+     * @param test           Test with the implementations
+     * @param template       Template xml string
+     * @param language       Template default language
+     * @param rawComposition RAW composition json string
+     * @return Operations by name
+     */
+    static Map<String, Operation> operations(AbstractWebTemplateTest test, String template, String language, String rawComposition) throws Exception {
+        String flatComposition = test.getCompositionConverter().convertRawToFlat(template, language, rawComposition);
+        String structuredComposition = test.getCompositionConverter().convertRawToStructured(template, language, rawComposition);
+        Map<String, Object> context = context(language);
+
+        Map<String, Operation> operations = new LinkedHashMap<>();
+        operations.put(
+                "convertRawToFlat",
+                new Operation(rawComposition, () -> test.getCompositionConverter().convertRawToFlat(template, language, rawComposition)));
+        operations.put(
+                "convertRawToStructured",
+                new Operation(rawComposition, () -> test.getCompositionConverter().convertRawToStructured(template, language, rawComposition)));
+        operations.put(
+                "convertFlatToRaw",
+                new Operation(flatComposition, () -> test.getCompositionConverter().convertFlatToRaw(template, language, flatComposition, context)));
+        operations.put(
+                "convertFlatToStructured",
+                new Operation(flatComposition, () -> test.getCompositionConverter().convertFlatToStructured(template, language, flatComposition, context)));
+        operations.put(
+                "convertStructuredToRaw",
+                new Operation(
+                        structuredComposition,
+                        () -> test.getCompositionConverter().convertStructuredToRaw(template, language, structuredComposition, context)));
+        operations.put(
+                "convertStructuredToFlat",
+                new Operation(
+                        structuredComposition,
+                        () -> test.getCompositionConverter().convertStructuredToFlat(template, language, structuredComposition, context)));
+        operations.put(
+                "updateRawComposition",
+                new Operation(
+                        rawComposition,
+                        () -> test.getCompositionConverter().updateRawComposition(template, language, rawComposition, context, Collections.emptyMap())));
+        operations.put("validate", new Operation(rawComposition, () -> test.getCompositionValidator().validate(template, rawComposition)));
+        return operations;
+    }
+
+    static final class Operation implements Callable<Object> {
+        private final String input;
+        private final Callable<?> callable;
+
+        private Operation(String input, Callable<?> callable) {
+            this.input = input;
+            this.callable = callable;
+        }
+
+        /**
+         * Returns the composition json string the operation takes.
+         */
+        String getInput() {
+            return input;
+        }
+
+        @Override
+        public Object call() throws Exception {
+            return callable.call();
+        }
+    }
+}
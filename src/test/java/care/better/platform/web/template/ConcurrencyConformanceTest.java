@@ -0,0 +1,199 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.CompositionCorpus.CompositionEntry;
+import care.better.platform.web.template.context.CompositionBuilderContextKey;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import care.better.platform.web.template.validator.ValidationErrorDto;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Shares one converter, validator and provider instance between threads and checks that every result is identical to the
+ * result of a single-threaded run.
+ */
+@ExtendWith(WebTemplateTestExtension.class)
+public class ConcurrencyConformanceTest extends AbstractWebTemplateTest {
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+
+    private final Map<String, Object> context = ImmutableMap.<String, Object>builder()
+            .putAll(CompositionFixtures.context("en"))
+            .put(CompositionBuilderContextKey.END_TIME.getKey(), CompositionFixtures.START_TIME.plusHours(1L))
+            .build();
+
+    @Test
+    public void sharedInstances(TestReporter testReporter) throws Exception {
+        List<Operation> operations = createOperations();
+        List<String> expectedResults = new ArrayList<>();
+        List<String> failures = new ArrayList<>();
+        for (Operation operation : operations) {
+            try {
+                expectedResults.add(operation.callable.call());
+            } catch (Exception e) {
+                failures.add(operation + ": " + e);
+            }
+        }
+        assertThat(failures).as("Operations that fail in the single-threaded run").isEmpty();
+
+        for (int threadCount : THREAD_COUNTS) {
+            Queue<String> mismatches = new ConcurrentLinkedQueue<>();
+            ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+            try {
+                CountDownLatch startLatch = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int thread = 0; thread < threadCount; thread++) {
+                    List<Integer> order = new ArrayList<>();
+                    for (int i = 0; i < operations.size(); i++) {
+                        order.add(i);
+                    }
+                    Collections.shuffle(order, new Random(thread));
+                    futures.add(executor.submit(() -> {
+                        startLatch.await();
+                        for (int i : order) {
+                            if (!expectedResults.get(i).equals(operations.get(i).call())) {
+                                mismatches.add(operations.get(i).toString());
+                            }
+                        }
+                        return null;
+                    }));
+                }
+
+                long start = System.nanoTime();
+                startLatch.countDown();
+                for (Future<?> future : futures) {
+                    future.get(30L, TimeUnit.MINUTES);
+                }
+                long elapsed = System.nanoTime() - start;
+
+                int operationCount = threadCount * operations.size();
+                testReporter.publishEntry(
+                        "threads-" + threadCount,
+                        String.format("%d operations in %d ms, %.1f operations/s",
+                                      operationCount,
+                                      TimeUnit.NANOSECONDS.toMillis(elapsed),
+                                      operationCount * 1.0e9 / elapsed));
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertThat(mismatches).as("Results that differ from the single-threaded run with %d threads", threadCount).isEmpty();
+        }
+    }
+
+    private List<Operation> createOperations() throws Exception {
+        List<Operation> operations = new ArrayList<>();
+        for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+            String template = getFileContent(entry.getTemplateName());
+            String language = entry.getDefaultLanguage();
+            String rawComposition = getFileContent(entry.getCompositionName());
+            String flatComposition = getCompositionConverter().convertRawToFlat(template, language, rawComposition);
+            String structuredComposition = getCompositionConverter().convertRawToStructured(template, language, rawComposition);
+
+            operations.add(new Operation(entry, "convertRawToFlat", () -> getCompositionConverter().convertRawToFlat(template, language, rawComposition)));
+            operations.add(new Operation(entry, "convertRawToStructured", () -> getCompositionConverter().convertRawToStructured(template, language, rawComposition)));
+            operations.add(new Operation(
+                    entry,
+                    "convertFlatToRaw",
+                    () -> getCompositionConverter().convertFlatToRaw(template, language, flatComposition, context)));
+            operations.add(new Operation(
+                    entry,
+                    "convertFlatToStructured",
+                    () -> getCompositionConverter().convertFlatToStructured(template, language, flatComposition, context)));
+            operations.add(new Operation(
+                    entry,
+                    "convertStructuredToRaw",
+                    () -> getCompositionConverter().convertStructuredToRaw(template, language, structuredComposition, context)));
+            operations.add(new Operation(
+                    entry,
+                    "convertStructuredToFlat",
+                    () -> getCompositionConverter().convertStructuredToFlat(template, language, structuredComposition, context)));
+            operations.add(new Operation(entry, "validate", () -> messages(getCompositionValidator().validate(template, rawComposition))));
+            operations.add(new Operation(entry, "provide", () -> getWebTemplateProvider().provide(template, language)));
+        }
+
+        CompositionEntry updateEntry = new CompositionEntry("/res/TM - Simple Body Observation2.xml", "en", "/res/Simple Body Observation2(1).json");
+        String updateTemplate = getFileContent(updateEntry.getTemplateName());
+        String updateRawComposition = getCompositionConverter().convertFlatToRaw(
+                updateTemplate,
+                updateEntry.getDefaultLanguage(),
+                getFileContent(updateEntry.getCompositionName()),
+                context);
+        Map<String, Object> delta = ImmutableMap.<String, Object>builder()
+                .put("simple_body_observation/simptomi_bolečine/pain/comments", "pain comments")
+                .put("simple_body_observation/simptomi_bolečine/pain/intensity/pain_scale_method|code", "at0.0.202")
+                .put("simple_body_observation/simptomi_bolečine/pain/intensity/scale_score", 3)
+                .build();
+        operations.add(new Operation(
+                updateEntry,
+                "updateRawComposition",
+                () -> getCompositionConverter().updateRawComposition(updateTemplate, updateEntry.getDefaultLanguage(), updateRawComposition, context, delta)));
+        return operations;
+    }
+
+    private static String messages(List<ValidationErrorDto> errors) {
+        return errors.stream().map(ValidationErrorDto::getMessage).collect(Collectors.joining("\n"));
+    }
+
+    private static final class Operation implements Callable<String> {
+        private final CompositionEntry entry;
+        private final String name;
+        private final Callable<String> callable;
+
+        private Operation(CompositionEntry entry, String name, Callable<String> callable) {
+            this.entry = entry;
+            this.name = name;
+            this.callable = callable;
+        }
+
+        /**
+         * Returns the result of the operation, or the exception class name if the operation failed, so that a failure on a
+         * thread counts as a mismatch.
+         */
+        @Override
+        public String call() {
+            try {
+                return callable.call();
+            } catch (Exception e) {
+                return e.getClass().getName();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + entry;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.CompositionCorpus.TemplateEntry;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import care.better.platform.web.template.generator.FlatCompositionGenerator;
+import care.better.platform.web.template.performance.Percentiles;
+import care.better.platform.web.template.performance.PerformanceBudgets;
+import care.better.platform.web.template.performance.PerformanceReport;
+import care.better.platform.web.template.performance.ScalingExponent;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Converts and validates compositions generated with all optional nodes from the most deeply nested corpus templates on a
+ * thread with a 512 KB stack, so that implementations recursing once or more per nesting level fail with
+ * {@link StackOverflowError} before production templates do.
+ * <p>
+ * The opt-in performance test builds a depth series from the deepest corpus template, generating the optional nodes only down
+ * to a growing web template depth. Every time is divided by the time of parsing and writing the same input json, so that the
+ * growing size of the composition drops out, and the log-log slope of this relative time over the depth must not exceed
+ * {@code nesting.maxExponent} from {@value PerformanceBudgets#DEFAULT_RESOURCE}, 1 by default. An implementation whose cost
+ * per node is constant is close to 0 and one that walks up to the root for every node close to 1 or above.
+ */
+@ExtendWith(WebTemplateTestExtension.class)
+public class DeepNestingTest extends AbstractWebTemplateTest {
+    private static final long STACK_SIZE = 512L * 1024L;
+    private static final int DEEPEST_TEMPLATES = 5;
+    private static final int REPETITIONS = 2;
+    private static final int MAX_VALUES = 5000;
+    private static final int MIN_VALUES = 100;
+    private static final int ITERATIONS = 10;
+    private static final long MEASUREMENT_NANOS = TimeUnit.MILLISECONDS.toNanos(200L);
+    private static final double DEFAULT_MAX_EXPONENT = 1.0;
+
+    @Test
+    public void deepestTemplatesOnSmallStack() throws Exception {
+        List<NestedTemplate> templates = nestedTemplates();
+        templates.sort(Comparator.comparingInt((NestedTemplate template) -> template.depth).reversed());
+
+        for (NestedTemplate template : templates.subList(0, Math.min(DEEPEST_TEMPLATES, templates.size()))) {
+            for (Map.Entry<String, Callable<?>> operation : operations(template).entrySet()) {
+                Throwable throwable = runOnSmallStack(operation.getValue());
+                if (throwable instanceof StackOverflowError) {
+                    fail("%s of %s with depth %s overflowed a %s KB stack.", operation.getKey(), template.entry, template.depth, STACK_SIZE / 1024L);
+                }
+                if (throwable != null) {
+                    throw new AssertionError(String.format("%s of %s failed.", operation.getKey(), template.entry), throwable);
+                }
+            }
+        }
+    }
+
+    @Test
+    @Tag("performance")
+    @EnabledIfSystemProperty(named = PerformanceBudgets.ENABLED_PROPERTY, matches = "true")
+    public void linearInDepth(TestReporter testReporter) throws Exception {
+        double maxExponent = PerformanceBudgets.load()
+                .map(budgets -> budgets.getBudget("nesting.maxExponent"))
+                .filter(OptionalDouble::isPresent)
+                .map(OptionalDouble::getAsDouble)
+                .orElse(DEFAULT_MAX_EXPONENT);
+
+        List<NestedTemplate> series = depthSeries(Collections.max(nestedTemplates(), Comparator.comparingInt(template -> template.depth)));
+        Map<String, double[]> relativeTimes = new LinkedHashMap<>();
+        double[] depths = new double[series.size()];
+        for (int i = 0; i < series.size(); i++) {
+            NestedTemplate template = series.get(i);
+            depths[i] = template.depth;
+            String rawComposition = getCompositionConverter().convertFlatToRaw(
+                    template.template, template.entry.getDefaultLanguage(), template.flatComposition, template.context);
+            Callable<?> flatReference = () -> getObjectMapper().writeValueAsString(getObjectMapper().readTree(template.flatComposition));
+            Callable<?> rawReference = () -> getObjectMapper().writeValueAsString(getObjectMapper().readTree(rawComposition));
+
+            for (Map.Entry<String, Callable<?>> operation : operations(template).entrySet()) {
+                Callable<?> reference = operation.getKey().startsWith("convertFlat") ? flatReference : rawReference;
+                double time = measure(operation.getValue());
+                relativeTimes.computeIfAbsent(operation.getKey(), key -> new double[series.size()])[i] = time / measure(reference);
+            }
+        }
+
+        List<String> columns = new ArrayList<>();
+        columns.add("operation");
+        for (NestedTemplate template : series) {
+            columns.add("depth " + template.depth);
+        }
+        columns.add("exponent");
+        columns.add("result");
+        PerformanceReport report = new PerformanceReport(
+                String.format("Time relative to parsing and writing the input json by depth of %s, exponent limit %s", series.get(0).entry, maxExponent),
+                columns.toArray(new String[0]));
+        boolean failed = false;
+
+        for (Map.Entry<String, double[]> operation : relativeTimes.entrySet()) {
+            double exponent = series.size() < 2 ? Double.NaN : ScalingExponent.fit(depths, operation.getValue());
+            String result = Double.isNaN(exponent) ? "NO FIT" : exponent > maxExponent ? "FAILED" : "ok";
+            failed |= !"ok".equals(result);
+
+            List<Object> row = new ArrayList<>();
+            row.add(operation.getKey());
+            for (double value : operation.getValue()) {
+                row.add(value);
+            }
+            row.add(exponent);
+            row.add(result);
+            report.addRow(row.toArray());
+        }
+
+        testReporter.publishEntry("nesting", report.toString());
+        if (failed) {
+            fail("Relative time grows faster than depth^%s or cannot be fitted:%n%s", maxExponent, report);
+        }
+    }
+
+    /**
+     * Generates the compositions of the template with the optional nodes limited to every depth from 2 to the depth of the
+     * template, leaving out the depths that add no values and the compositions with fewer than {@value #MIN_VALUES} values, whose
+     * times are dominated by the fixed cost of a call.
+     */
+    private List<NestedTemplate> depthSeries(NestedTemplate template) throws Exception {
+        JsonNode webTemplate = getObjectMapper().readTree(getWebTemplateProvider().provide(template.template, template.entry.getDefaultLanguage()));
+        List<NestedTemplate> series = new ArrayList<>();
+        String previousComposition = null;
+        for (int depth = 2; depth <= template.depth; depth++) {
+            FlatCompositionGenerator generator = FlatCompositionGenerator.builder()
+                    .repetitions(REPETITIONS)
+                    .maxValues(MAX_VALUES)
+                    .maxDepth(depth)
+                    .build();
+            Map<String, Object> flatValues = generator.generate(webTemplate);
+            String flatComposition = getObjectMapper().writeValueAsString(flatValues);
+            if (flatValues.size() >= MIN_VALUES && !flatComposition.equals(previousComposition)) {
+                series.add(new NestedTemplate(template.entry, template.template, depth, flatComposition));
+                previousComposition = flatComposition;
+            }
+        }
+        return series;
+    }
+
+    private List<NestedTemplate> nestedTemplates() throws Exception {
+        FlatCompositionGenerator generator = FlatCompositionGenerator.builder().repetitions(REPETITIONS).maxValues(MAX_VALUES).build();
+        List<NestedTemplate> templates = new ArrayList<>();
+        for (TemplateEntry entry : CompositionCorpus.TEMPLATES) {
+            String template = getFileContent(entry.getTemplateName());
+            JsonNode webTemplate = getObjectMapper().readTree(getWebTemplateProvider().provide(template, entry.getDefaultLanguage()));
+            String flatComposition = getObjectMapper().writeValueAsString(generator.generate(webTemplate));
+            templates.add(new NestedTemplate(entry, template, depth(webTemplate.path("tree")), flatComposition));
+        }
+        return templates;
+    }
+
+    private Map<String, Callable<?>> operations(NestedTemplate template) throws Exception {
+        String language = template.entry.getDefaultLanguage();
+        String rawComposition = getCompositionConverter().convertFlatToRaw(template.template, language, template.flatComposition, template.context);
+        String structuredComposition = getCompositionConverter().convertRawToStructured(template.template, language, rawComposition);
+
+        Map<String, Callable<?>> operations = new LinkedHashMap<>();
+        operations.put("convertFlatToRaw", () -> getCompositionConverter().convertFlatToRaw(template.template, language, template.flatComposition, template.context));
+        operations.put(
+                "convertFlatToStructured",
+                () -> getCompositionConverter().convertFlatToStructured(template.template, language, template.flatComposition, template.context));
+        operations.put("convertRawToFlat", () -> getCompositionConverter().convertRawToFlat(template.template, language, rawComposition));
+        operations.put("convertRawToStructured", () -> getCompositionConverter().convertRawToStructured(template.template, language, rawComposition));
+        operations.put(
+                "convertStructuredToRaw",
+                () -> getCompositionConverter().convertStructuredToRaw(template.template, language, structuredComposition, template.context));
+        operations.put(
+                "convertStructuredToFlat",
+                () -> getCompositionConverter().convertStructuredToFlat(template.template, language, structuredComposition, template.context));
+        operations.put("validate", () -> getCompositionValidator().validate(template.template, rawComposition));
+        return operations;
+    }
+
+    private static Throwable runOnSmallStack(Callable<?> operation) throws InterruptedException {
+        AtomicReference<Throwable> throwable = new AtomicReference<>();
+        Thread thread = new Thread(
+                null,
+                () -> {
+                    try {
+                        operation.call();
+                    } catch (Throwable t) {
+                        throwable.set(t);
+                    }
+                },
+                "deep-nesting",
+                STACK_SIZE);
+        thread.start();
+        thread.join();
+        return throwable.get();
+    }
+
+    private static int depth(JsonNode node) {
+        int depth = 0;
+        for (JsonNode child : node.path("children")) {
+            depth = Math.max(depth, depth(child));
+        }
+        return depth + 1;
+    }
+
+    /**
+     * Returns the median time of the operation, run for at least {@link #MEASUREMENT_NANOS} and {@link #ITERATIONS} times after
+     * as long a warmup, so that small compositions are measured as reliably as large ones.
+     */
+    private static double measure(Callable<?> operation) throws Exception {
+        run(operation);
+        List<Double> samples = run(operation);
+        double[] values = new double[samples.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = samples.get(i);
+        }
+        return new Percentiles(values).get(50.0);
+    }
+
+    private static List<Double> run(Callable<?> operation) throws Exception {
+        List<Double> samples = new ArrayList<>();
+        long end = System.nanoTime() + MEASUREMENT_NANOS;
+        do {
+            long start = System.nanoTime();
+            operation.call();
+            samples.add((System.nanoTime() - start) / 1.0e6);
+        } while (System.nanoTime() < end || samples.size() < ITERATIONS);
+        return samples;
+    }
+
+    private static final class NestedTemplate {
+        private final TemplateEntry entry;
+        private final String template;
+        private final int depth;
+        private final String flatComposition;
+        private final Map<String, Object> context;
+
+        private NestedTemplate(TemplateEntry entry, String template, int depth, String flatComposition) {
+            this.entry = entry;
+            this.template = template;
+            this.depth = depth;
+            this.flatComposition = flatComposition;
+            this.context = CompositionFixtures.context(entry.getDefaultLanguage());
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.context.CompositionBuilderContextKey;
+import care.better.platform.web.template.converter.ValidatedComposition;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import care.better.platform.web.template.validator.ValidationErrorDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(WebTemplateTestExtension.class)
+public class DeltaValidationTest extends AbstractWebTemplateTest {
+    private static final String VITAL_SIGNS = "vital_functions/vital_signs/";
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> context;
+
+    @Override
+    @BeforeEach
+    public void setUp() {
+        super.setUp();
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JodaModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        context = CompositionFixtures.context("sl");
+    }
+
+    @Test
+    public void simpleBodyObservationUpdate() throws Exception {
+        String template = getFileContent("/res/TM - Simple Body Observation2.xml");
+        Map<String, Object> flatComposition = objectMapper.readValue(getFileContent("/res/Simple Body Observation2(1).json"), new TypeReference<Map<String, Object>>() {});
+        String rawComposition = getCompositionConverter().convertFlatToRaw(template, "en", objectMapper.writeValueAsString(flatComposition), context);
+
+        Map<String, Object> delta = ImmutableMap.<String, Object>builder()
+                .put("simple_body_observation/simptomi_bolečine/pain/comments", "pain comments")
+                .put("simple_body_observation/simptomi_bolečine/pain/intensity/pain_scale_method|code", "at0.0.202")
+                .put("simple_body_observation/simptomi_bolečine/pain/intensity/scale_score", 3)
+                .build();
+
+        assertDeltaParity(template, rawComposition, context, delta);
+    }
+
+    @Test
+    public void dischargePlanUpdate() throws Exception {
+        String template = getFileContent("/res/TM - Discharge Plan Encounter.xml");
+        String rawComposition = getFileContent("/res/Discharge Plan Encounter.json");
+
+        Map<String, Object> delta = new HashMap<>();
+        delta.put("discharge_plan_encounter/discharge_plan/healthcare_service_request/request/discharge_intervention_service_requested|at0.196", true);
+        delta.put("discharge_plan_encounter/discharge_plan/healthcare_service_request/request/discharge_intervention_service_requested|at0.197", null);
+        delta.put("discharge_plan_encounter/discharge_plan/healthcare_service_request/request/discharge_intervention_service_requested|at0.198", null);
+        delta.put("discharge_plan_encounter/discharge_plan/healthcare_service_request/request/discharge_intervention_service_requested|at0.199", null);
+
+        assertDeltaParity(
+                template,
+                rawComposition,
+                ImmutableMap.of(
+                        CompositionBuilderContextKey.LANGUAGE.getKey(), "sl",
+                        CompositionBuilderContextKey.TERRITORY.getKey(), "SI",
+                        CompositionBuilderContextKey.COMPOSER_NAME.getKey(), "composer",
+                        CompositionBuilderContextKey.INSTRUCTIONS_NARRATIVE_PROVIDER.getKey(), "narrative",
+                        CompositionBuilderContextKey.ACTIVITY_TIMING_PROVIDER.getKey(), "timing::R0"),
+                delta);
+    }
+
+    @Test
+    public void dischargeGoalUpdate() throws Exception {
+        String template = getFileContent("/res/TM - Discharge Plan Encounter.xml");
+        String rawComposition = getFileContent("/res/Discharge Plan Encounter(1).json");
+
+        Map<String, Object> delta = new HashMap<>();
+        for (int i = 2; i <= 10; i++) {
+            delta.put("discharge_plan_encounter/discharge_plan/goal_setting/discharge_goal|at0.0." + i, i == 7 ? "true" : null);
+        }
+        delta.put("discharge_plan_encounter/context/context_detail/period_of_care_identifier", "76567450");
+
+        assertDeltaParity(
+                template,
+                rawComposition,
+                ImmutableMap.of(
+                        CompositionBuilderContextKey.LANGUAGE.getKey(), "sl",
+                        CompositionBuilderContextKey.TERRITORY.getKey(), "SI",
+                        CompositionBuilderContextKey.COMPOSER_NAME.getKey(), "composer",
+                        CompositionBuilderContextKey.ISM_TRANSITION.getKey(), "openehr::524::initial"),
+                delta);
+    }
+
+    @Test
+    public void emptyDelta() throws Exception {
+        String template = getFileContent("/res/TM - Discharge Plan Encounter.xml");
+        String rawComposition = getFileContent("/res/Discharge Plan Encounter.json");
+
+        assertThat(messages(getCompositionValidator().validateDelta(template, rawComposition, Collections.emptySet())))
+                .isEqualTo(messages(getCompositionValidator().validate(template, rawComposition)));
+    }
+
+    @Test
+    public void codeOutsideList() throws Exception {
+        Map<String, Object> delta = new HashMap<>();
+        delta.put(VITAL_SIGNS + "body_temperature:0/any_event:0/symptoms|code", "at0.99");
+        delta.put(VITAL_SIGNS + "body_temperature:0/any_event:0/symptoms|value", "Unknown symptom");
+
+        assertDeltaErrors(delta);
+    }
+
+    @Test
+    public void cardinalityViolation() throws Exception {
+        Map<String, Object> delta = new HashMap<>();
+        delta.put(VITAL_SIGNS + "body_temperature:0/any_event:0/symptoms:0", "at0.64");
+        delta.put(VITAL_SIGNS + "body_temperature:0/any_event:0/symptoms:1", "at0.65");
+        delta.put(VITAL_SIGNS + "body_temperature:0/any_event:0/symptoms:2", "at0.64");
+
+        assertDeltaErrors(delta);
+    }
+
+    @Test
+    public void magnitudeOutOfRange() throws Exception {
+        assertDeltaErrors(ImmutableMap.of(VITAL_SIGNS + "body_temperature:0/any_event:0/body_temperature|magnitude", 50));
+    }
+
+    private void assertDeltaErrors(Map<String, Object> delta) throws Exception {
+        String template = getFileContent("/res/ZN - Vital Functions Encounter.xml");
+        String rawComposition = getCompositionConverter().convertFlatToRaw(template, "en", objectMapper.writeValueAsString(vitalSigns()), context);
+        String updatedComposition = getCompositionConverter().updateRawComposition(template, "en", rawComposition, context, delta);
+
+        assertThat(getCompositionValidator().validate(template, rawComposition)).isEmpty();
+        assertThat(messages(getCompositionValidator().validateDelta(template, updatedComposition, delta.keySet())))
+                .isNotEmpty()
+                .isEqualTo(messages(getCompositionValidator().validate(template, updatedComposition)));
+
+        ValidatedComposition validatedComposition = getCompositionConverter().updateRawCompositionValidated(template, "en", rawComposition, context, delta);
+        assertThat(messages(validatedComposition.getErrors())).isEqualTo(messages(getCompositionValidator().validate(template, updatedComposition)));
+    }
+
+    private static Map<String, Object> vitalSigns() {
+        return ImmutableMap.<String, Object>builder()
+                .put(VITAL_SIGNS + "blood_pressure/any_event/systolic|magnitude", 120)
+                .put(VITAL_SIGNS + "blood_pressure/any_event/systolic|unit", "mm[Hg]")
+                .put(VITAL_SIGNS + "blood_pressure/any_event/diastolic|magnitude", 80)
+                .put(VITAL_SIGNS + "blood_pressure/any_event/diastolic|unit", "mm[Hg]")
+                .put(VITAL_SIGNS + "body_temperature:0/any_event:0/body_temperature|magnitude", 37)
+                .put(VITAL_SIGNS + "body_temperature:0/any_event:0/body_temperature|unit", "°C")
+                .put(VITAL_SIGNS + "body_temperature:0/any_event:0/symptoms", "at0.65")
+                .build();
+    }
+
+    private void assertDeltaParity(String template, String rawComposition, Map<String, Object> legacyContext, Map<String, Object> delta) throws Exception {
+        Map<String, Object> context = new HashMap<>(legacyContext);
+        context.put(CompositionBuilderContextKey.START_TIME.getKey(), CompositionFixtures.START_TIME);
+        assertThat(getCompositionValidator().validate(template, rawComposition)).isEmpty();
+
+        ValidatedComposition validatedComposition = getCompositionConverter().updateRawCompositionValidated(
+                template,
+                "en",
+                rawComposition,
+                context,
+                delta);
+        String updatedComposition = getCompositionConverter().updateRawComposition(template, "en", rawComposition, context, delta);
+
+        assertThat(objectMapper.readTree(validatedComposition.getComposition())).isEqualTo(objectMapper.readTree(updatedComposition));
+        assertThat(messages(validatedComposition.getErrors())).isEqualTo(messages(getCompositionValidator().validate(template, updatedComposition)));
+        assertThat(messages(getCompositionValidator().validateDelta(template, updatedComposition, delta.keySet())))
+                .isEqualTo(messages(getCompositionValidator().validate(template, updatedComposition)));
+    }
+
+    private static List<String> messages(List<ValidationErrorDto> errors) {
+        return errors.stream().map(ValidationErrorDto::getMessage).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,180 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import care.better.platform.web.template.generator.FlatCompositionGenerator;
+import care.better.platform.web.template.validator.ValidationErrorDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(WebTemplateTestExtension.class)
+public class FlatCompositionGeneratorTest extends AbstractWebTemplateTest {
+
+    @Test
+    public void occurrences() throws Exception {
+        Map<String, Object> flatComposition = FlatCompositionGenerator.builder().repetitions(5).build().generate(getJsonNode("/res/Generator Web Template.json"));
+
+        assertThat(flatComposition).containsKeys(
+                "generator_test/observation:4/any_event:2/pressure|magnitude",
+                "generator_test/observation:4/any_event:2/comment:4");
+        assertThat(flatComposition).doesNotContainKeys(
+                "generator_test/observation:5/any_event:0/pressure|magnitude",
+                "generator_test/observation:0/any_event:3/pressure|magnitude",
+                "generator_test/observation:0/any_event:0/position|value",
+                "generator_test/evaluation/null_flavour|code",
+                "generator_test/action/ism_transition/current_state|code");
+        assertThat(flatComposition.keySet()).noneMatch(path -> path.contains("language") || path.contains("/time"));
+        assertThat(flatComposition.keySet().stream().filter(path -> path.startsWith("generator_test/evaluation/value/"))).hasSize(1);
+        assertThat(flatComposition).containsEntry("generator_test/action/ism_transition/careflow_step|code", "at0003");
+    }
+
+    @Test
+    public void mandatoryOnly() throws Exception {
+        Map<String, Object> flatComposition = FlatCompositionGenerator.builder().repetitions(5).includeOptional(false).build()
+                .generate(getJsonNode("/res/Generator Web Template.json"));
+
+        assertThat(flatComposition).containsOnlyKeys(
+                "generator_test/observation:0/any_event:0/pressure|unit",
+                "generator_test/observation:0/any_event:0/pressure|magnitude");
+    }
+
+    @Test
+    public void constraints() throws Exception {
+        JsonNode webTemplate = getJsonNode("/res/Generator Web Template.json");
+        for (long seed = 0L; seed < 50L; seed++) {
+            Map<String, Object> flatComposition = FlatCompositionGenerator.builder().repetitions(3).seed(seed).build().generate(webTemplate);
+
+            for (Map.Entry<String, Object> entry : flatComposition.entrySet()) {
+                String path = entry.getKey();
+                if (path.endsWith("pressure|magnitude")) {
+                    BigDecimal magnitude = (BigDecimal)entry.getValue();
+                    if ("kPa".equals(flatComposition.get(path.replace("|magnitude", "|unit")))) {
+                        assertThat(magnitude).isGreaterThan(new BigDecimal("0.5")).isLessThanOrEqualTo(new BigDecimal("2.5"));
+                        assertThat(magnitude.scale()).isEqualTo(2);
+                    } else {
+                        assertThat(magnitude).isGreaterThanOrEqualTo(BigDecimal.ZERO).isLessThan(new BigDecimal("1000"));
+                        assertThat(magnitude.scale()).isEqualTo(0);
+                    }
+                } else if (path.endsWith("position|code")) {
+                    assertThat(entry.getValue()).isIn("at0001", "at0002");
+                } else if (path.endsWith("/count")) {
+                    assertThat(entry.getValue()).isIn(6L, 7L);
+                } else if (path.endsWith("ratio|numerator")) {
+                    assertThat((BigDecimal)entry.getValue()).isBetween(BigDecimal.ZERO, new BigDecimal("100"));
+                } else if (path.endsWith("ratio|denominator")) {
+                    assertThat(entry.getValue()).isEqualTo(100);
+                } else if (path.endsWith("boolean_value")) {
+                    assertThat(entry.getValue()).isEqualTo(true);
+                } else if (path.endsWith("date_value")) {
+                    assertThat(entry.getValue()).isEqualTo("2020-01-01");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void deterministic() throws Exception {
+        String webTemplate = getFileContent("/res/Generator Web Template.json");
+        FlatCompositionGenerator generator = FlatCompositionGenerator.builder().repetitions(3).seed(42L).build();
+
+        String flatComposition = generator.generate(webTemplate);
+
+        assertThat(generator.generate(webTemplate)).isEqualTo(flatComposition);
+        assertThat(flatComposition).isEqualTo(getObjectMapper().writeValueAsString(generator.generate(getJsonNode("/res/Generator Web Template.json"))));
+    }
+
+    @Test
+    public void maxValues() throws Exception {
+        Map<String, Object> flatComposition = FlatCompositionGenerator.builder().repetitions(100).maxValues(10).build()
+                .generate(getJsonNode("/res/Generator Web Template.json"));
+
+        assertThat(flatComposition.size()).isBetween(10, 20);
+        assertThat(flatComposition).containsKey("generator_test/observation:0/any_event:0/pressure|magnitude");
+    }
+
+    @Test
+    public void maxDepth() throws Exception {
+        JsonNode webTemplate = getJsonNode("/res/Generator Web Template.json");
+        Map<String, Object> shallowComposition = FlatCompositionGenerator.builder().repetitions(5).maxDepth(2).build().generate(webTemplate);
+        Map<String, Object> flatComposition = FlatCompositionGenerator.builder().repetitions(5).maxDepth(3).build().generate(webTemplate);
+
+        assertThat(shallowComposition).containsKey("generator_test/observation:4/any_event:0/pressure|magnitude");
+        assertThat(shallowComposition.keySet()).anyMatch(path -> path.startsWith("generator_test/evaluation/value/"));
+        assertThat(shallowComposition).doesNotContainKeys(
+                "generator_test/observation:0/any_event:1/pressure|magnitude",
+                "generator_test/evaluation/ratio|numerator");
+        assertThat(flatComposition).containsKeys(
+                "generator_test/observation:4/any_event:2/pressure|magnitude",
+                "generator_test/evaluation/ratio|numerator");
+        assertThat(flatComposition.keySet()).noneMatch(path -> path.contains("/comment") || path.contains("/position"));
+        assertThat(flatComposition.size()).isGreaterThan(shallowComposition.size());
+    }
+
+    @Test
+    public void invalidOptions() {
+        assertThatThrownBy(() -> FlatCompositionGenerator.builder().repetitions(0).build()).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FlatCompositionGenerator.builder().maxValues(0).build()).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FlatCompositionGenerator.builder().maxDepth(0).build()).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FlatCompositionGenerator.builder().build().generate("{\"templateId\":\"Generator Test\"}"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void repetitionsGrowComposition() throws Exception {
+        String webTemplate = getWebTemplateProvider().provide(getFileContent("/res/Demo Vitals.opt"), "en");
+
+        Map<String, Object> small = flat(FlatCompositionGenerator.builder().repetitions(1).build().generate(webTemplate));
+        Map<String, Object> large = flat(FlatCompositionGenerator.builder().repetitions(5).build().generate(webTemplate));
+
+        assertThat(small).isNotEmpty();
+        assertThat(large.size()).isGreaterThan(small.size());
+    }
+
+    @Test
+    public void generatedCompositionsAreValid() throws Exception {
+        FlatCompositionGenerator generator = FlatCompositionGenerator.builder().repetitions(2).build();
+        List<String> failures = new ArrayList<>();
+        for (CompositionCorpus.TemplateEntry entry : CompositionCorpus.TEMPLATES) {
+            String template = getFileContent(entry.getTemplateName());
+            String flatComposition = generator.generate(getWebTemplateProvider().provide(template, entry.getDefaultLanguage()));
+            Map<String, Object> context = CompositionFixtures.context(entry.getDefaultLanguage());
+
+            String rawComposition = getCompositionConverter().convertFlatToRaw(template, entry.getDefaultLanguage(), flatComposition, context);
+            List<ValidationErrorDto> errors = getCompositionValidator().validate(template, rawComposition);
+            if (!errors.isEmpty()) {
+                failures.add(entry + ": " + errors.stream().map(ValidationErrorDto::getMessage).collect(Collectors.joining(", ")));
+            }
+        }
+
+        assertThat(failures).isEmpty();
+    }
+
+    private Map<String, Object> flat(String flatComposition) throws Exception {
+        return getObjectMapper().readValue(flatComposition, new TypeReference<Map<String, Object>>() {});
+    }
+}
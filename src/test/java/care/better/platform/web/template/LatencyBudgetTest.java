@@ -0,0 +1,111 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.CompositionFixtures.Operation;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import care.better.platform.web.template.performance.Percentiles;
+import care.better.platform.web.template.performance.PerformanceBudgets;
+import care.better.platform.web.template.performance.PerformanceReport;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Checks warmed-up p50 and p99 latencies of the conversions against the budgets supplied by the implementation in
+ * {@value PerformanceBudgets#DEFAULT_RESOURCE}, e.g. {@code latency.large.convertRawToFlat.p99=250}, in milliseconds.
+ */
+@Tag("performance")
+@EnabledIfSystemProperty(named = PerformanceBudgets.ENABLED_PROPERTY, matches = "true")
+@ExtendWith(WebTemplateTestExtension.class)
+public class LatencyBudgetTest extends AbstractWebTemplateTest {
+    private static final double[] PERCENTILES = {50.0, 99.0};
+
+    @Test
+    public void latencyBudgets(TestReporter testReporter) throws Exception {
+        PerformanceBudgets budgets = PerformanceBudgets.load()
+                .orElseThrow(() -> new IllegalStateException(String.format(
+                        "Performance budgets %s were not found on the classpath.",
+                        System.getProperty(PerformanceBudgets.RESOURCE_PROPERTY, PerformanceBudgets.DEFAULT_RESOURCE))));
+        int warmupIterations = budgets.getInt("latency.warmup", 20);
+        int iterations = budgets.getInt("latency.iterations", 100);
+
+        PerformanceReport report = new PerformanceReport(
+                "Latency (ms) with " + iterations + " iterations after " + warmupIterations + " warmup iterations",
+                "template", "operation", "p50", "p50 budget", "p99", "p99 budget", "result");
+        boolean failed = false;
+
+        for (Map.Entry<String, String[]> template : templates().entrySet()) {
+            for (Map.Entry<String, Operation> operation : operations(template.getValue()).entrySet()) {
+                for (int i = 0; i < warmupIterations; i++) {
+                    operation.getValue().call();
+                }
+                double[] samples = new double[iterations];
+                for (int i = 0; i < iterations; i++) {
+                    long start = System.nanoTime();
+                    operation.getValue().call();
+                    samples[i] = (System.nanoTime() - start) / 1.0e6;
+                }
+
+                Percentiles percentiles = new Percentiles(samples);
+                Object[] row = new Object[7];
+                row[0] = template.getKey();
+                row[1] = operation.getKey();
+                String result = "ok";
+                for (int i = 0; i < PERCENTILES.length; i++) {
+                    String percentile = "p" + (int)PERCENTILES[i];
+                    OptionalDouble budget = budgets.getBudget(
+                            "latency." + template.getKey() + '.' + operation.getKey() + '.' + percentile,
+                            "latency." + operation.getKey() + '.' + percentile,
+                            "latency." + percentile);
+                    double value = percentiles.get(PERCENTILES[i]);
+                    row[2 + 2 * i] = value;
+                    row[3 + 2 * i] = budget.isPresent() ? budget.getAsDouble() : "-";
+                    if (budget.isPresent() && value > budget.getAsDouble()) {
+                        result = "FAILED";
+                        failed = true;
+                    }
+                }
+                row[6] = result;
+                report.addRow(row);
+            }
+        }
+
+        testReporter.publishEntry("latency", report.toString());
+        if (failed) {
+            fail("Latency budgets from %s were exceeded:%n%s", budgets.getResourceName(), report);
+        }
+    }
+
+    private Map<String, String[]> templates() {
+        Map<String, String[]> templates = new LinkedHashMap<>();
+        templates.put("small", new String[]{"/res/Demo Vitals.opt", "sl", "/res/Demo Vitals.json"});
+        templates.put("large", new String[]{"/res/ZN - Assessment Scales Encounter.opt", "en", "/res/Assessment Scales.json"});
+        return templates;
+    }
+
+    private Map<String, Operation> operations(String[] templateEntry) throws Exception {
+        return CompositionFixtures.operations(this, getFileContent(templateEntry[0]), templateEntry[1], getFileContent(templateEntry[2]));
+    }
+}
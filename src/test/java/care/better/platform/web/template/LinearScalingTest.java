@@ -0,0 +1,207 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import care.better.platform.web.template.performance.Percentiles;
+import care.better.platform.web.template.performance.PerformanceBudgets;
+import care.better.platform.web.template.performance.PerformanceReport;
+import care.better.platform.web.template.performance.ScalingExponent;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Converts and validates Demo Vitals compositions with 10 to 10,000 body temperature events and fits the marginal cost of the
+ * events on a log-log scale: the median time of each size minus the median time of 10 events, over the number of added events.
+ * Subtracting the smallest size removes the fixed per-call cost, which would otherwise flatten the slope of a quadratic
+ * implementation. The fitted exponent must not exceed {@code scaling.maxExponent} from
+ * {@value PerformanceBudgets#DEFAULT_RESOURCE}, 1.5 by default. A linear implementation is close to 1 and a quadratic one
+ * close to 2.
+ * <p>
+ * The test also fails when the result would not show how the time grows: when fewer than two sizes add measurable time, when
+ * the exponent is below {@value #MIN_EXPONENT}, so that the time hardly depends on the events, or when the converted
+ * composition does not grow with the number of events. An implementation that returns early would otherwise look linear. The
+ * size of the validation result is not checked, because the compositions are valid.
+ */
+@Tag("performance")
+@EnabledIfSystemProperty(named = PerformanceBudgets.ENABLED_PROPERTY, matches = "true")
+@ExtendWith(WebTemplateTestExtension.class)
+public class LinearScalingTest extends AbstractWebTemplateTest {
+    private static final int[] REPETITIONS = {10, 100, 1000, 10000};
+    private static final double DEFAULT_MAX_EXPONENT = 1.5;
+    private static final double MIN_EXPONENT = 0.5;
+    private static final long MEASUREMENT_NANOS = TimeUnit.MILLISECONDS.toNanos(500L);
+    private static final int MIN_ITERATIONS = 3;
+
+    private final Map<String, Object> context = CompositionFixtures.context("sl");
+
+    @Test
+    public void linearScaling(TestReporter testReporter) throws Exception {
+        double maxExponent = PerformanceBudgets.load()
+                .map(budgets -> budgets.getBudget("scaling.maxExponent"))
+                .filter(OptionalDouble::isPresent)
+                .map(OptionalDouble::getAsDouble)
+                .orElse(DEFAULT_MAX_EXPONENT);
+
+        String template = getFileContent("/res/Demo Vitals.opt");
+        Map<String, double[]> times = new LinkedHashMap<>();
+        Map<String, long[]> outputSizes = new LinkedHashMap<>();
+        for (int i = 0; i < REPETITIONS.length; i++) {
+            for (Map.Entry<String, Callable<?>> operation : operations(template, REPETITIONS[i]).entrySet()) {
+                times.computeIfAbsent(operation.getKey(), key -> new double[REPETITIONS.length])[i] = measure(operation.getValue());
+                Object output = operation.getValue().call();
+                outputSizes.computeIfAbsent(operation.getKey(), key -> new long[REPETITIONS.length])[i] =
+                        output instanceof String ? ((String)output).length() : -1L;
+            }
+        }
+
+        List<String> columns = new ArrayList<>();
+        columns.add("operation");
+        for (int repetitions : REPETITIONS) {
+            columns.add(repetitions + " (ms)");
+        }
+        columns.add("output " + REPETITIONS[0] + " (chars)");
+        columns.add("output " + REPETITIONS[REPETITIONS.length - 1] + " (chars)");
+        columns.add("marginal exponent");
+        columns.add("result");
+        PerformanceReport report = new PerformanceReport(
+                "Median time by the number of repeated events, marginal exponent limit " + maxExponent,
+                columns.toArray(new String[0]));
+        boolean failed = false;
+
+        for (Map.Entry<String, double[]> operation : times.entrySet()) {
+            double[] millis = operation.getValue();
+            long[] sizes = outputSizes.get(operation.getKey());
+            double exponent = getMarginalExponent(millis);
+            String result;
+            if (Double.isNaN(exponent)) {
+                result = "NO FIT";
+            } else if (exponent < MIN_EXPONENT) {
+                result = "NOT GROWING";
+            } else if (!isGrowing(sizes)) {
+                result = "OUTPUT NOT GROWING";
+            } else {
+                result = exponent > maxExponent ? "FAILED" : "ok";
+            }
+            failed |= !"ok".equals(result);
+
+            List<Object> row = new ArrayList<>();
+            row.add(operation.getKey());
+            for (double value : millis) {
+                row.add(value);
+            }
+            row.add(sizes[0] < 0L ? "-" : String.valueOf(sizes[0]));
+            row.add(sizes[sizes.length - 1] < 0L ? "-" : String.valueOf(sizes[sizes.length - 1]));
+            row.add(exponent);
+            row.add(result);
+            report.addRow(row.toArray());
+        }
+
+        testReporter.publishEntry("scaling", report.toString());
+        if (failed) {
+            fail("Marginal time is not between n^%s and n^%s, or the output does not grow with n:%n%s", MIN_EXPONENT, maxExponent, report);
+        }
+    }
+
+    /**
+     * Fits the exponent of the time added by the events over the smallest size. Sizes that add no measurable time are left out,
+     * so that the noise of the small sizes cannot make the logarithm undefined; the slope then comes from the larger sizes.
+     * Returns {@code NaN} when fewer than two sizes are left.
+     */
+    private static double getMarginalExponent(double[] millis) {
+        List<double[]> points = new ArrayList<>();
+        for (int i = 1; i < REPETITIONS.length; i++) {
+            double marginalMillis = millis[i] - millis[0];
+            if (marginalMillis > 0.0) {
+                points.add(new double[]{REPETITIONS[i] - REPETITIONS[0], marginalMillis});
+            }
+        }
+        if (points.size() < 2) {
+            return Double.NaN;
+        }
+        return ScalingExponent.fit(
+                points.stream().mapToDouble(point -> point[0]).toArray(),
+                points.stream().mapToDouble(point -> point[1]).toArray());
+    }
+
+    /**
+     * Returns whether the output grows with every size. Outputs without a size, the validation errors, are not checked.
+     */
+    private static boolean isGrowing(long[] sizes) {
+        for (int i = 1; i < sizes.length; i++) {
+            if (sizes[i] >= 0L && sizes[i] <= sizes[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<String, Callable<?>> operations(String template, int repetitions) throws Exception {
+        Map<String, Object> flatValues = new LinkedHashMap<>();
+        for (int i = 0; i < repetitions; i++) {
+            flatValues.put("vitals/vitals/body_temperature/any_event:" + i + "/temperature|magnitude", 36.0 + i % 40 / 10.0);
+            flatValues.put("vitals/vitals/body_temperature/any_event:" + i + "/temperature|unit", "°C");
+        }
+        String flatComposition = getObjectMapper().writeValueAsString(flatValues);
+        String rawComposition = getCompositionConverter().convertFlatToRaw(template, "sl", flatComposition, context);
+        String structuredComposition = getCompositionConverter().convertRawToStructured(template, "sl", rawComposition);
+
+        Map<String, Callable<?>> operations = new LinkedHashMap<>();
+        operations.put("convertFlatToRaw", () -> getCompositionConverter().convertFlatToRaw(template, "sl", flatComposition, context));
+        operations.put("convertFlatToStructured", () -> getCompositionConverter().convertFlatToStructured(template, "sl", flatComposition, context));
+        operations.put("convertRawToFlat", () -> getCompositionConverter().convertRawToFlat(template, "sl", rawComposition));
+        operations.put("convertRawToStructured", () -> getCompositionConverter().convertRawToStructured(template, "sl", rawComposition));
+        operations.put("convertStructuredToRaw", () -> getCompositionConverter().convertStructuredToRaw(template, "sl", structuredComposition, context));
+        operations.put("convertStructuredToFlat", () -> getCompositionConverter().convertStructuredToFlat(template, "sl", structuredComposition, context));
+        operations.put("validate", () -> getCompositionValidator().validate(template, rawComposition));
+        return operations;
+    }
+
+    private static double measure(Callable<?> operation) throws Exception {
+        run(operation, iterations -> false);
+        List<Double> samples = run(operation, iterations -> iterations < MIN_ITERATIONS);
+        double[] values = new double[samples.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = samples.get(i);
+        }
+        return new Percentiles(values).get(50.0);
+    }
+
+    private static List<Double> run(Callable<?> operation, Function<Integer, Boolean> more) throws Exception {
+        List<Double> samples = new ArrayList<>();
+        long end = System.nanoTime() + MEASUREMENT_NANOS;
+        do {
+            long start = System.nanoTime();
+            operation.call();
+            samples.add((System.nanoTime() - start) / 1.0e6);
+        } while (System.nanoTime() < end || more.apply(samples.size()));
+        return samples;
+    }
+}
@@ -0,0 +1,89 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.converter.CompositionConverter;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(WebTemplateTestExtension.class)
+@Execution(ExecutionMode.CONCURRENT)
+public class ParallelExecutionTest extends AbstractWebTemplateTest {
+    private static final List<String> FILE_NAMES = Arrays.asList(
+            "/res/Demo Vitals.opt",
+            "/res/Demo Vitals.json",
+            "/res/MED - Medication Order.opt",
+            "/res/conformance test.json",
+            "/res/Simple Body Observation2(1).json");
+
+    @RepeatedTest(16)
+    public void concurrentTestMethods() throws Exception {
+        CompositionConverter compositionConverter = getCompositionConverter();
+        assertThat(compositionConverter).isNotNull();
+
+        String template = getFileContent("/res/Demo Vitals.opt");
+        String rawComposition = getFileContent("/res/Demo Vitals.json");
+        JsonNode flatComposition = getObjectMapper().readTree(getCompositionConverter().convertRawToFlat(template, "sl", rawComposition));
+
+        assertThat(getCompositionConverter()).isSameAs(compositionConverter);
+        assertThat(getObjectMapper().readTree(getCompositionConverter().convertRawToFlat(template, "sl", rawComposition))).isEqualTo(flatComposition);
+    }
+
+    @Test
+    public void concurrentResourceLoading() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().enable(JsonParser.Feature.ALLOW_COMMENTS);
+        List<String> expectedContents = new ArrayList<>();
+        for (String fileName : FILE_NAMES) {
+            try (InputStream inputStream = getClass().getResourceAsStream(fileName)) {
+                String content = IOUtils.toString(inputStream, "UTF-8");
+                expectedContents.add(fileName.endsWith(".json") ? objectMapper.writeValueAsString(objectMapper.readTree(content)) : content);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> contents = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String fileName = FILE_NAMES.get(i % FILE_NAMES.size());
+                contents.add(executor.submit(() -> getFileContent(fileName)));
+            }
+            for (int i = 0; i < contents.size(); i++) {
+                assertThat(contents.get(i).get(5L, TimeUnit.MINUTES)).isEqualTo(expectedContents.get(i % FILE_NAMES.size()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
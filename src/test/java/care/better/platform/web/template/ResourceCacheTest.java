@@ -0,0 +1,85 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(WebTemplateTestExtension.class)
+public class ResourceCacheTest extends AbstractWebTemplateTest {
+
+    @Test
+    public void cachedContent() throws Exception {
+        String template = getFileContent("/res/Demo Vitals.opt");
+        long hitCount = ResourceCache.getInstance().getHitCount();
+
+        assertThat(getFileContent("/res/Demo Vitals.opt")).isEqualTo(template);
+        assertThat(new String(getFileBytes("/res/Demo Vitals.opt"), StandardCharsets.UTF_8)).isEqualTo(template);
+        assertThat(ResourceCache.getInstance().getHitCount()).isGreaterThanOrEqualTo(hitCount + 2L);
+    }
+
+    @Test
+    public void normalizedJson() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String rawComposition = getFileContent("/res/Demo Vitals.json");
+
+        assertThat(rawComposition).isEqualTo(objectMapper.writeValueAsString(objectMapper.readTree(rawComposition)));
+        assertThat(getJsonNode("/res/Demo Vitals.json")).isEqualTo(objectMapper.readTree(rawComposition));
+    }
+
+    @Test
+    public void returnedCopies() throws Exception {
+        byte[] bytes = getFileBytes("/res/Demo Vitals.json");
+        bytes[0] = 0;
+        getJsonNode("/res/Demo Vitals.json").with("modified");
+
+        assertThat(getFileBytes("/res/Demo Vitals.json")[0]).isEqualTo((byte)'{');
+        assertThat(getJsonNode("/res/Demo Vitals.json").has("modified")).isFalse();
+    }
+
+    @Test
+    public void boundedSize() throws Exception {
+        int templateSize = getFileBytes("/res/Demo Vitals.opt").length;
+        ResourceCache resourceCache = new ResourceCache(templateSize);
+
+        resourceCache.get(getClass(), "/res/Demo Vitals.opt");
+        resourceCache.get(getClass(), "/res/Demo Vitals.opt");
+        assertThat(resourceCache.getHitCount()).isEqualTo(1L);
+        assertThat(resourceCache.getMissCount()).isEqualTo(1L);
+
+        resourceCache.get(getClass(), "/res/Demo Vitals.json");
+        assertThat(resourceCache.getSize()).isLessThanOrEqualTo(templateSize);
+        assertThat(resourceCache.getEvictionCount()).isEqualTo(1L);
+        assertThat(resourceCache.size()).isEqualTo(1);
+
+        resourceCache.get(getClass(), "/res/Demo Vitals.opt");
+        assertThat(resourceCache.getMissCount()).isEqualTo(3L);
+    }
+
+    @Test
+    public void missingResource() {
+        assertThatThrownBy(() -> getFileContent("/res/missing.json"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("/res/missing.json");
+    }
+}
@@ -0,0 +1,76 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.converter.CompositionConverter;
+import care.better.platform.web.template.extension.SpiLifecycle;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(WebTemplateTestExtension.class)
+public class SpiLifecycleTest extends AbstractWebTemplateTest {
+    private static final List<CompositionConverter> COMPOSITION_CONVERTERS = Collections.synchronizedList(new ArrayList<>());
+
+    private static SpiLifecycle spiLifecycle;
+
+    @RegisterExtension
+    static final BeforeAllCallback SPI_LIFECYCLE = extensionContext ->
+            spiLifecycle = SpiLifecycle.fromValue(extensionContext.getConfigurationParameter(SpiLifecycle.CONFIGURATION_PARAMETER).orElse(null));
+
+    @RepeatedTest(3)
+    public void resolvedInstances() {
+        assertThat(getCompositionConverter()).isNotNull();
+        assertThat(getWebTemplateProvider()).isNotNull();
+        assertThat(getCompositionValidator()).isNotNull();
+        COMPOSITION_CONVERTERS.add(getCompositionConverter());
+    }
+
+    @Test
+    public void lifecycleValues() {
+        assertThat(SpiLifecycle.fromValue(null)).isEqualTo(SpiLifecycle.PER_METHOD);
+        assertThat(SpiLifecycle.fromValue("per_class")).isEqualTo(SpiLifecycle.PER_CLASS);
+        assertThat(SpiLifecycle.fromValue(" PER-JVM ")).isEqualTo(SpiLifecycle.PER_JVM);
+        assertThatThrownBy(() -> SpiLifecycle.fromValue("per_suite"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(SpiLifecycle.CONFIGURATION_PARAMETER);
+    }
+
+    @AfterAll
+    public static void verifyInstances() {
+        Set<CompositionConverter> distinctConverters = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinctConverters.addAll(COMPOSITION_CONVERTERS);
+
+        if (spiLifecycle == SpiLifecycle.PER_METHOD) {
+            assertThat(distinctConverters).hasSize(COMPOSITION_CONVERTERS.size());
+        } else {
+            assertThat(distinctConverters).hasSize(1);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.CompositionCorpus.CompositionEntry;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streaming output is compared with the compact serialization of the json string API result.
+ */
+@ExtendWith(WebTemplateTestExtension.class)
+public class StreamingConversionTest extends AbstractWebTemplateTest {
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> context;
+
+    @Override
+    @BeforeEach
+    public void setUp() {
+        super.setUp();
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JodaModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        context = CompositionFixtures.context("en");
+    }
+
+    @Test
+    public void rawConversions() throws Exception {
+        for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+            String template = getFileContent(entry.getTemplateName());
+            String language = entry.getDefaultLanguage();
+            String rawComposition = getFileContent(entry.getCompositionName());
+
+            ByteArrayOutputStream flatComposition = new ByteArrayOutputStream();
+            getCompositionConverter().convertRawToFlat(template, language, toInputStream(rawComposition), flatComposition);
+            assertSameBytes(entry, flatComposition, getCompositionConverter().convertRawToFlat(template, language, rawComposition));
+
+            ByteArrayOutputStream structuredComposition = new ByteArrayOutputStream();
+            getCompositionConverter().convertRawToStructured(template, language, toInputStream(rawComposition), structuredComposition);
+            assertSameBytes(entry, structuredComposition, getCompositionConverter().convertRawToStructured(template, language, rawComposition));
+        }
+    }
+
+    @Test
+    public void flatConversions() throws Exception {
+        for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+            String template = getFileContent(entry.getTemplateName());
+            String language = entry.getDefaultLanguage();
+            String flatComposition = getCompositionConverter().convertRawToFlat(template, language, getFileContent(entry.getCompositionName()));
+
+            ByteArrayOutputStream rawComposition = new ByteArrayOutputStream();
+            getCompositionConverter().convertFlatToRaw(template, language, toInputStream(flatComposition), context, rawComposition);
+            assertSameBytes(entry, rawComposition, getCompositionConverter().convertFlatToRaw(template, language, flatComposition, context));
+
+            ByteArrayOutputStream structuredComposition = new ByteArrayOutputStream();
+            getCompositionConverter().convertFlatToStructured(template, language, toInputStream(flatComposition), context, structuredComposition);
+            assertSameBytes(entry, structuredComposition, getCompositionConverter().convertFlatToStructured(template, language, flatComposition, context));
+        }
+    }
+
+    @Test
+    public void structuredConversions() throws Exception {
+        for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+            String template = getFileContent(entry.getTemplateName());
+            String language = entry.getDefaultLanguage();
+            String structuredComposition = getCompositionConverter().convertRawToStructured(template, language, getFileContent(entry.getCompositionName()));
+
+            ByteArrayOutputStream rawComposition = new ByteArrayOutputStream();
+            getCompositionConverter().convertStructuredToRaw(template, language, toInputStream(structuredComposition), context, rawComposition);
+            assertSameBytes(entry, rawComposition, getCompositionConverter().convertStructuredToRaw(template, language, structuredComposition, context));
+
+            ByteArrayOutputStream flatComposition = new ByteArrayOutputStream();
+            getCompositionConverter().convertStructuredToFlat(template, language, toInputStream(structuredComposition), context, flatComposition);
+            assertSameBytes(entry, flatComposition, getCompositionConverter().convertStructuredToFlat(template, language, structuredComposition, context));
+        }
+    }
+
+    @Test
+    public void updateRawComposition() throws Exception {
+        for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+            String template = getFileContent(entry.getTemplateName());
+            String language = entry.getDefaultLanguage();
+            String rawComposition = getFileContent(entry.getCompositionName());
+            Map<String, Object> deltaValues = getCompositionConverter().convertRawToFlat(template, language, rawComposition, objectMapper);
+
+            ByteArrayOutputStream updatedComposition = new ByteArrayOutputStream();
+            getCompositionConverter().updateRawComposition(template, language, toInputStream(rawComposition), context, deltaValues, updatedComposition);
+            assertSameBytes(entry, updatedComposition, getCompositionConverter().updateRawComposition(template, language, rawComposition, context, deltaValues));
+        }
+    }
+
+    @Test
+    public void parserAndGenerator() throws Exception {
+        String template = getFileContent("/res/Demo Vitals.opt");
+        String rawComposition = getFileContent("/res/Demo Vitals.json");
+
+        ByteArrayOutputStream flatComposition = new ByteArrayOutputStream();
+        try (JsonParser parser = objectMapper.getFactory().createParser(rawComposition);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(flatComposition)) {
+            getCompositionConverter().convertRawToFlat(template, "sl", parser, generator);
+        }
+
+        assertSameBytes(
+                new CompositionEntry("/res/Demo Vitals.opt", "sl", "/res/Demo Vitals.json"),
+                flatComposition,
+                getCompositionConverter().convertRawToFlat(template, "sl", rawComposition));
+    }
+
+    private void assertSameBytes(CompositionEntry entry, ByteArrayOutputStream actual, String expected) throws Exception {
+        assertThat(actual.toByteArray()).as(entry.toString()).isEqualTo(objectMapper.writeValueAsBytes(objectMapper.readTree(expected)));
+    }
+
+    private static ByteArrayInputStream toInputStream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,111 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.CompositionCorpus.TemplateEntry;
+import care.better.platform.web.template.converter.CompiledTemplate;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import care.better.platform.web.template.performance.HeapMeter;
+import care.better.platform.web.template.performance.PerformanceBudgets;
+import care.better.platform.web.template.performance.PerformanceReport;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Compiles the corpus templates one by one with a long-lived converter and records the retained heap growth per template.
+ * Optional ceilings are read from {@value PerformanceBudgets#DEFAULT_RESOURCE}: {@code footprint.retainedKb} per template
+ * and {@code footprint.ratio} of retained bytes to template bytes.
+ * <p>
+ * Templates compiled by the default {@code compile}, which only holds the template string, are reported as
+ * {@code NOT COMPILED}, and a negative heap growth (a collection of garbage left by an earlier template) as
+ * {@code NEGATIVE}. Neither is checked against the ceilings.
+ */
+@Tag("performance")
+@EnabledIfSystemProperty(named = PerformanceBudgets.ENABLED_PROPERTY, matches = "true")
+@ExtendWith(WebTemplateTestExtension.class)
+public class TemplateFootprintTest extends AbstractWebTemplateTest {
+
+    @Test
+    public void retainedHeapPerTemplate(TestReporter testReporter) throws Exception {
+        Optional<PerformanceBudgets> budgets = PerformanceBudgets.load();
+        OptionalDouble retainedKbCeiling = budgets.map(value -> value.getBudget("footprint.retainedKb")).orElse(OptionalDouble.empty());
+        OptionalDouble ratioCeiling = budgets.map(value -> value.getBudget("footprint.ratio")).orElse(OptionalDouble.empty());
+
+        List<String> templates = new ArrayList<>();
+        List<Integer> templateSizes = new ArrayList<>();
+        for (TemplateEntry entry : CompositionCorpus.TEMPLATES) {
+            templates.add(getFileContent(entry.getTemplateName()));
+            templateSizes.add(getFileBytes(entry.getTemplateName()).length);
+        }
+
+        PerformanceReport report = new PerformanceReport(
+                "Retained heap per compiled template",
+                "template", "template KB", "retained KB", "ratio", "result");
+        List<CompiledTemplate> compiledTemplates = new ArrayList<>();
+        boolean failed = false;
+
+        long retainedHeap = HeapMeter.getRetainedHeap();
+        for (int i = 0; i < templates.size(); i++) {
+            TemplateEntry entry = CompositionCorpus.TEMPLATES.get(i);
+            CompiledTemplate compiledTemplate = getCompositionConverter().compile(templates.get(i), entry.getDefaultLanguage());
+            compiledTemplates.add(compiledTemplate);
+
+            long currentRetainedHeap = HeapMeter.getRetainedHeap();
+            double templateKb = templateSizes.get(i) / 1024.0;
+            double retainedKb = (currentRetainedHeap - retainedHeap) / 1024.0;
+            if (isDefaultCompile(compiledTemplate)) {
+                report.addRow(entry.getTemplateName(), templateKb, "-", "-", "NOT COMPILED");
+            } else if (retainedKb < 0.0) {
+                report.addRow(entry.getTemplateName(), templateKb, retainedKb, "-", "NEGATIVE");
+            } else {
+                double ratio = retainedKb / templateKb;
+                boolean exceeded = retainedKbCeiling.isPresent() && retainedKb > retainedKbCeiling.getAsDouble()
+                        || ratioCeiling.isPresent() && ratio > ratioCeiling.getAsDouble();
+                failed |= exceeded;
+
+                report.addRow(entry.getTemplateName(), templateKb, retainedKb, ratio, exceeded ? "FAILED" : "ok");
+            }
+            retainedHeap = currentRetainedHeap;
+        }
+
+        report.sortDescending("retained KB");
+        Path csv = report.writeCsv("template-footprint.csv");
+        testReporter.publishEntry("footprint", report.toString() + (csv == null ? "" : "Written to " + csv));
+        assertThat(compiledTemplates).hasSize(templates.size());
+        if (failed) {
+            fail("Template footprint ceilings were exceeded:%n%s", report);
+        }
+    }
+
+    /**
+     * Returns whether the template was compiled by the default {@code compile}, whose handle class is not visible here.
+     */
+    private static boolean isDefaultCompile(CompiledTemplate compiledTemplate) {
+        return "DefaultCompiledTemplate".equals(compiledTemplate.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,140 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.CompositionCorpus.CompositionEntry;
+import care.better.platform.web.template.CompositionCorpus.TemplateEntry;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import care.better.platform.web.template.registry.BoundedTemplateRegistry;
+import care.better.platform.web.template.validator.ValidationErrorDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(WebTemplateTestExtension.class)
+public class TemplateRegistryTest extends AbstractWebTemplateTest {
+
+    private ObjectMapper objectMapper;
+    private BoundedTemplateRegistry templateRegistry;
+
+    @Override
+    @BeforeEach
+    public void setUp() {
+        super.setUp();
+        objectMapper = new ObjectMapper();
+        templateRegistry = BoundedTemplateRegistry.withMaxSize(3, (templateId, version) -> getFileContent(templateId));
+    }
+
+    @Test
+    public void provideAfterEviction() throws Exception {
+        for (int pass = 0; pass < 2; pass++) {
+            for (TemplateEntry entry : CompositionCorpus.TEMPLATES) {
+                String webTemplate = getWebTemplateProvider().provide(templateRegistry, entry.getTemplateName(), entry.getDefaultLanguage());
+                String expectedWebTemplate = getWebTemplateProvider().provide(getFileContent(entry.getTemplateName()), entry.getDefaultLanguage());
+
+                assertThat(objectMapper.readTree(webTemplate)).as(entry.toString()).isEqualTo(objectMapper.readTree(expectedWebTemplate));
+                assertThat(templateRegistry.size()).isLessThanOrEqualTo(3);
+            }
+        }
+
+        assertThat(templateRegistry.getEvictionCount()).isEqualTo(2L * CompositionCorpus.TEMPLATES.size() - 3L);
+        assertThat(templateRegistry.getMissCount()).isEqualTo(2L * CompositionCorpus.TEMPLATES.size());
+    }
+
+    @Test
+    public void convertAfterEviction() throws Exception {
+        for (int pass = 0; pass < 2; pass++) {
+            for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+                String template = getFileContent(entry.getTemplateName());
+                String rawComposition = getFileContent(entry.getCompositionName());
+
+                String flatComposition = getCompositionConverter().convertRawToFlat(
+                        templateRegistry,
+                        entry.getTemplateName(),
+                        entry.getDefaultLanguage(),
+                        rawComposition);
+                String structuredComposition = getCompositionConverter().convertRawToStructured(
+                        templateRegistry,
+                        entry.getTemplateName(),
+                        entry.getDefaultLanguage(),
+                        rawComposition);
+
+                assertThat(objectMapper.readTree(flatComposition)).as(entry.toString())
+                        .isEqualTo(objectMapper.readTree(getCompositionConverter().convertRawToFlat(template, entry.getDefaultLanguage(), rawComposition)));
+                assertThat(objectMapper.readTree(structuredComposition)).as(entry.toString())
+                        .isEqualTo(objectMapper.readTree(getCompositionConverter().convertRawToStructured(template, entry.getDefaultLanguage(), rawComposition)));
+            }
+        }
+
+        assertThat(templateRegistry.getEvictionCount()).isPositive();
+    }
+
+    @Test
+    public void validateAfterEviction() throws Exception {
+        for (int pass = 0; pass < 2; pass++) {
+            for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+                String rawComposition = getFileContent(entry.getCompositionName());
+
+                List<ValidationErrorDto> errors = getCompositionValidator().validate(templateRegistry, entry.getTemplateName(), rawComposition);
+                List<ValidationErrorDto> expectedErrors = getCompositionValidator().validate(getFileContent(entry.getTemplateName()), rawComposition);
+
+                assertThat(messages(errors)).as(entry.toString()).isEqualTo(messages(expectedErrors));
+            }
+        }
+
+        assertThat(templateRegistry.getEvictionCount()).isPositive();
+    }
+
+    @Test
+    public void registeredTemplate() throws Exception {
+        BoundedTemplateRegistry registry = BoundedTemplateRegistry.withMaxLength(Long.MAX_VALUE, null);
+        String template = getFileContent("/res/Demo Vitals.opt");
+        String templateVersion2 = getFileContent("/res/Demo Vitals2.opt");
+        registry.register("Demo Vitals", template);
+        registry.register("Demo Vitals", "2", templateVersion2);
+
+        assertThat(registry.lookup("Demo Vitals")).isEqualTo(template);
+        assertThat(registry.lookup("Demo Vitals", "2")).isEqualTo(templateVersion2);
+        assertThat(registry.getWeight()).isEqualTo((long)template.length() + templateVersion2.length());
+        assertThat(objectMapper.readTree(getWebTemplateProvider().provide(registry, "Demo Vitals", "en")))
+                .isEqualTo(objectMapper.readTree(getWebTemplateProvider().provide(template, "en")));
+        assertThat(objectMapper.readTree(getWebTemplateProvider().provide(registry, "Demo Vitals", "2", "en")))
+                .isEqualTo(objectMapper.readTree(getWebTemplateProvider().provide(templateVersion2, "en")));
+
+        registry.evict("Demo Vitals");
+
+        assertThat(registry.size()).isEqualTo(1);
+        assertThat(registry.getWeight()).isEqualTo(templateVersion2.length());
+        assertThat(registry.lookup("Demo Vitals", "2")).isEqualTo(templateVersion2);
+        assertThatThrownBy(() -> registry.lookup("Demo Vitals"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Demo Vitals");
+        assertThatThrownBy(() -> getWebTemplateProvider().provide(registry, "Demo Vitals", "en"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Demo Vitals");
+    }
+
+    private static List<String> messages(List<ValidationErrorDto> errors) {
+        return errors.stream().map(ValidationErrorDto::getMessage).collect(Collectors.toList());
+    }
+}
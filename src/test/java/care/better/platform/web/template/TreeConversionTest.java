@@ -0,0 +1,216 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.CompositionCorpus.CompositionEntry;
+import care.better.platform.web.template.converter.CompositionConverter;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(WebTemplateTestExtension.class)
+public class TreeConversionTest extends AbstractWebTemplateTest {
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> context;
+
+    @Override
+    @BeforeEach
+    public void setUp() {
+        super.setUp();
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JodaModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        context = CompositionFixtures.context("en");
+    }
+
+    @Test
+    public void rawConversions() throws Exception {
+        for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+            String template = getFileContent(entry.getTemplateName());
+            String rawCompositionString = getFileContent(entry.getCompositionName());
+            JsonNode rawComposition = objectMapper.readTree(rawCompositionString);
+
+            Map<String, Object> flatComposition = getCompositionConverter().convertRawToFlat(template, entry.getDefaultLanguage(), rawComposition);
+            JsonNode structuredComposition = getCompositionConverter().convertRawToStructured(template, entry.getDefaultLanguage(), rawComposition);
+
+            assertEquivalent(entry, flatComposition, getCompositionConverter().convertRawToFlat(template, entry.getDefaultLanguage(), rawCompositionString));
+            assertEquivalent(entry, structuredComposition, getCompositionConverter().convertRawToStructured(template, entry.getDefaultLanguage(), rawCompositionString));
+        }
+    }
+
+    @Test
+    public void flatConversions() throws Exception {
+        for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+            String template = getFileContent(entry.getTemplateName());
+            String flatCompositionString = getCompositionConverter().convertRawToFlat(template, entry.getDefaultLanguage(), getFileContent(entry.getCompositionName()));
+            Map<String, Object> flatComposition = objectMapper.readValue(flatCompositionString, new TypeReference<Map<String, Object>>() {});
+
+            JsonNode rawComposition = getCompositionConverter().convertFlatToRaw(template, entry.getDefaultLanguage(), flatComposition, context);
+            JsonNode structuredComposition = getCompositionConverter().convertFlatToStructured(template, entry.getDefaultLanguage(), flatComposition, context);
+
+            assertEquivalent(entry, rawComposition, getCompositionConverter().convertFlatToRaw(template, entry.getDefaultLanguage(), flatCompositionString, context));
+            assertEquivalent(
+                    entry,
+                    structuredComposition,
+                    getCompositionConverter().convertFlatToStructured(template, entry.getDefaultLanguage(), flatCompositionString, context));
+        }
+    }
+
+    @Test
+    public void structuredConversions() throws Exception {
+        for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+            String template = getFileContent(entry.getTemplateName());
+            String structuredCompositionString = getCompositionConverter().convertRawToStructured(
+                    template,
+                    entry.getDefaultLanguage(),
+                    getFileContent(entry.getCompositionName()));
+            JsonNode structuredComposition = objectMapper.readTree(structuredCompositionString);
+
+            JsonNode rawComposition = getCompositionConverter().convertStructuredToRaw(template, entry.getDefaultLanguage(), structuredComposition, context);
+            Map<String, Object> flatComposition = getCompositionConverter().convertStructuredToFlat(template, entry.getDefaultLanguage(), structuredComposition, context);
+
+            assertEquivalent(
+                    entry,
+                    rawComposition,
+                    getCompositionConverter().convertStructuredToRaw(template, entry.getDefaultLanguage(), structuredCompositionString, context));
+            assertEquivalent(
+                    entry,
+                    flatComposition,
+                    getCompositionConverter().convertStructuredToFlat(template, entry.getDefaultLanguage(), structuredCompositionString, context));
+        }
+    }
+
+    @Test
+    public void updateRawComposition() throws Exception {
+        for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+            String template = getFileContent(entry.getTemplateName());
+            String rawCompositionString = getFileContent(entry.getCompositionName());
+            Map<String, Object> deltaValues = getCompositionConverter().convertRawToFlat(template, entry.getDefaultLanguage(), objectMapper.readTree(rawCompositionString));
+
+            JsonNode updatedComposition = getCompositionConverter().updateRawComposition(
+                    template,
+                    entry.getDefaultLanguage(),
+                    objectMapper.readTree(rawCompositionString),
+                    context,
+                    deltaValues);
+
+            assertEquivalent(
+                    entry,
+                    updatedComposition,
+                    getCompositionConverter().updateRawComposition(template, entry.getDefaultLanguage(), rawCompositionString, context, deltaValues));
+        }
+    }
+
+    @Test
+    public void chainedConversions() throws Exception {
+        String template = getFileContent("/res/Demo Vitals.opt");
+        JsonNode rawComposition = objectMapper.readTree(getFileContent("/res/Demo Vitals.json"));
+
+        Map<String, Object> flatComposition = getCompositionConverter().convertRawToFlat(template, "sl", rawComposition);
+        JsonNode structuredComposition = getCompositionConverter().convertFlatToStructured(template, "sl", flatComposition, context);
+        JsonNode convertedRawComposition = getCompositionConverter().convertStructuredToRaw(template, "sl", structuredComposition, context);
+
+        assertThat(structuredComposition).isNotNull();
+        assertThat(getCompositionConverter().convertRawToFlat(template, "sl", convertedRawComposition)).isNotEmpty();
+    }
+
+    @Test
+    public void objectMapperVariantsUseTreeVariants() throws Exception {
+        JsonNode structuredComposition = objectMapper.readTree("{\"vitals\":{}}");
+        CompositionConverter treeConverter = new TreeCompositionConverter(structuredComposition);
+
+        assertThat(treeConverter.convertRawToStructured("template", "en", "{}", objectMapper)).isEqualTo(structuredComposition);
+        assertThat(treeConverter.convertFlatToStructured("template", "en", "{\"vitals/name\":\"value\"}", context, objectMapper))
+                .isEqualTo(structuredComposition);
+    }
+
+    private void assertEquivalent(CompositionEntry entry, Object actual, String expected) throws Exception {
+        assertThat(objectMapper.<JsonNode>valueToTree(actual)).as(entry.toString()).isEqualTo(objectMapper.readTree(expected));
+    }
+
+    private static final class TreeCompositionConverter implements CompositionConverter {
+        private final JsonNode structuredComposition;
+
+        private TreeCompositionConverter(JsonNode structuredComposition) {
+            this.structuredComposition = structuredComposition;
+        }
+
+        @Override
+        public JsonNode convertRawToStructured(String template, String defaultLanguage, JsonNode rawComposition) {
+            return structuredComposition;
+        }
+
+        @Override
+        public JsonNode convertFlatToStructured(
+                String template,
+                String defaultLanguage,
+                Map<String, Object> flatComposition,
+                Map<String, Object> compositionBuilderContext) {
+            return structuredComposition;
+        }
+
+        @Override
+        public String convertRawToFlat(String template, String defaultLanguage, String rawComposition) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String convertRawToStructured(String template, String defaultLanguage, String rawComposition) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String convertFlatToRaw(String template, String defaultTemplateLanguage, String flatComposition, Map<String, Object> compositionBuilderContext) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String convertFlatToStructured(String template, String defaultLanguage, String flatComposition, Map<String, Object> compositionBuilderContext) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String convertStructuredToRaw(String template, String defaultLanguage, String structuredComposition, Map<String, Object> compositionBuilderContext) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String convertStructuredToFlat(String template, String defaultLanguage, String structuredComposition, Map<String, Object> compositionBuilderContext) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String updateRawComposition(
+                String template,
+                String defaultLanguage,
+                String rawComposition,
+                Map<String, Object> compositionBuilderContext,
+                Map<String, Object> deltaValues) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
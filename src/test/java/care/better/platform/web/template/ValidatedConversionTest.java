@@ -0,0 +1,139 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.CompositionCorpus.CompositionEntry;
+import care.better.platform.web.template.context.CompositionBuilderContext;
+import care.better.platform.web.template.converter.ValidatedComposition;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import care.better.platform.web.template.validator.ValidationErrorDto;
+import care.better.platform.web.template.validator.ValidationOptions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(WebTemplateTestExtension.class)
+public class ValidatedConversionTest extends AbstractWebTemplateTest {
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> context;
+
+    @Override
+    @BeforeEach
+    public void setUp() {
+        super.setUp();
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JodaModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        context = CompositionFixtures.context("en");
+    }
+
+    @Test
+    public void corpusParity() throws Exception {
+        for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+            String template = getFileContent(entry.getTemplateName());
+            String flatComposition = getCompositionConverter().convertRawToFlat(template, entry.getDefaultLanguage(), getFileContent(entry.getCompositionName()));
+
+            ValidatedComposition validatedComposition = getCompositionConverter().convertFlatToRawValidated(
+                    template,
+                    entry.getDefaultLanguage(),
+                    flatComposition,
+                    context,
+                    ValidationOptions.defaults());
+
+            String rawComposition = getCompositionConverter().convertFlatToRaw(template, entry.getDefaultLanguage(), flatComposition, context);
+            List<ValidationErrorDto> errors = getCompositionValidator().validate(template, rawComposition);
+
+            assertThat(objectMapper.readTree(validatedComposition.getComposition())).as(entry.toString()).isEqualTo(objectMapper.readTree(rawComposition));
+            assertThat(messages(validatedComposition.getErrors())).as(entry.toString()).isEqualTo(messages(errors));
+            assertThat(validatedComposition.isValid()).as(entry.toString()).isEqualTo(errors.isEmpty());
+        }
+    }
+
+    @Test
+    public void typedContextParity() throws Exception {
+        String template = getFileContent("/res/Demo Vitals.opt");
+        String flatComposition = getCompositionConverter().convertRawToFlat(template, "sl", getFileContent("/res/Demo Vitals.json"));
+
+        ValidatedComposition validatedComposition = getCompositionConverter().convertFlatToRawValidatedWithContext(
+                template,
+                "sl",
+                flatComposition,
+                CompositionBuilderContext.fromMap(context),
+                ValidationOptions.defaults());
+        ValidatedComposition expectedComposition = getCompositionConverter().convertFlatToRawValidated(template, "sl", flatComposition, context, ValidationOptions.defaults());
+
+        assertThat(objectMapper.readTree(validatedComposition.getComposition())).isEqualTo(objectMapper.readTree(expectedComposition.getComposition()));
+        assertThat(messages(validatedComposition.getErrors())).isEqualTo(messages(expectedComposition.getErrors()));
+        assertThatThrownBy(() -> validatedComposition.getErrors().add(new ValidationErrorDto("error", new String[0], 0)))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void invalidConformanceComposition() throws Exception {
+        String template = getFileContent("/res/ConformanceTesttemplate.opt");
+        String flatComposition = getCompositionConverter().convertRawToFlat(template, "en", getFileContent("/res/conformance test.json"));
+
+        ValidatedComposition validatedComposition = getCompositionConverter().convertFlatToRawValidated(
+                template,
+                "en",
+                flatComposition,
+                Collections.emptyMap(),
+                ValidationOptions.defaults());
+
+        assertThat(validatedComposition.isValid()).isFalse();
+        assertThat(messages(validatedComposition.getErrors()))
+                .isEqualTo(messages(getCompositionValidator().validate(template, validatedComposition.getComposition())));
+    }
+
+    @Test
+    public void sharedValidator() {
+        assertThat(getCompositionConverter().getCompositionValidator()).isSameAs(getCompositionConverter().getCompositionValidator());
+    }
+
+    @Test
+    public void validationOptions() throws Exception {
+        String template = getFileContent("/res/ConformanceTesttemplate.opt");
+        String flatComposition = getCompositionConverter().convertRawToFlat(template, "en", getFileContent("/res/conformance test.json"));
+        ValidationOptions validationOptions = ValidationOptions.builder().maxErrors(1).params(true, false).build();
+
+        ValidatedComposition validatedComposition = getCompositionConverter().convertFlatToRawValidated(
+                template,
+                "en",
+                flatComposition,
+                Collections.emptyMap(),
+                validationOptions);
+
+        assertThat(messages(validatedComposition.getErrors()))
+                .hasSize(1)
+                .isEqualTo(messages(getCompositionValidator().validate(template, validatedComposition.getComposition(), validationOptions)));
+    }
+
+    private static List<String> messages(List<ValidationErrorDto> errors) {
+        return errors.stream().map(ValidationErrorDto::getMessage).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,127 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template;
+
+import care.better.platform.web.template.CompositionCorpus.CompositionEntry;
+import care.better.platform.web.template.extension.WebTemplateTestExtension;
+import care.better.platform.web.template.validator.ValidationErrorDto;
+import care.better.platform.web.template.validator.ValidationOptions;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(WebTemplateTestExtension.class)
+public class ValidationOptionsTest extends AbstractWebTemplateTest {
+
+    private ObjectMapper objectMapper;
+
+    @Override
+    @BeforeEach
+    public void setUp() {
+        super.setUp();
+        objectMapper = new ObjectMapper();
+    }
+
+    @Test
+    public void truncatedConformanceErrors() throws Exception {
+        String template = getFileContent("/res/ConformanceTesttemplate.opt");
+        JsonNode rawComposition = objectMapper.readTree(getFileContent("/res/conformance test.json"));
+
+        Map<String, Object> flatComposition = getCompositionConverter().convertRawToFlat(template, "en", rawComposition.toString(), objectMapper);
+        JsonNode rawComposition1 = getCompositionConverter().convertFlatToRaw(
+                template,
+                "en",
+                objectMapper.writeValueAsString(flatComposition),
+                Collections.emptyMap(),
+                objectMapper);
+
+        List<String> errors = messages(getCompositionValidator().validate(template, rawComposition1.toString()));
+        assertThat(errors).hasSize(8);
+
+        assertPrefixConsistent(template, rawComposition1.toString(), errors);
+        assertThat(getCompositionValidator().isValid(template, rawComposition1.toString())).isFalse();
+    }
+
+    @Test
+    public void truncatedCorpusErrors() throws Exception {
+        for (CompositionEntry entry : CompositionCorpus.RAW_COMPOSITIONS) {
+            String template = getFileContent(entry.getTemplateName());
+            String rawComposition = getFileContent(entry.getCompositionName());
+
+            List<String> errors = messages(getCompositionValidator().validate(template, rawComposition));
+
+            assertPrefixConsistent(template, rawComposition, errors);
+            assertThat(getCompositionValidator().isValid(template, rawComposition)).as(entry.toString()).isEqualTo(errors.isEmpty());
+        }
+    }
+
+    @Test
+    public void truncatedErrorsWithParams() throws Exception {
+        String template = getFileContent("/res/openEHR-EHR-COMPOSITION.t_specialist_examination.opt");
+        String rawComposition = getFileContent("/res/ru-compositionWithRelaxedNames.json");
+
+        List<String> errors = messages(getCompositionValidator().validateWithParams(template, rawComposition, true, false));
+
+        for (int maxErrors = 1; maxErrors <= errors.size() + 1; maxErrors++) {
+            ValidationOptions validationOptions = ValidationOptions.builder()
+                    .maxErrors(maxErrors)
+                    .params(true, false)
+                    .build();
+
+            assertThat(messages(getCompositionValidator().validate(template, rawComposition, validationOptions)))
+                    .as(validationOptions.toString())
+                    .isEqualTo(errors.subList(0, Math.min(maxErrors, errors.size())));
+        }
+        assertThat(messages(getCompositionValidator().validate(template, rawComposition, ValidationOptions.builder().params(false, true).build())))
+                .isEqualTo(messages(getCompositionValidator().validateWithParams(template, rawComposition, false, true)));
+    }
+
+    @Test
+    public void invalidOptions() {
+        assertThat(ValidationOptions.failFast().isFailFast()).isTrue();
+        assertThat(ValidationOptions.defaults().getMaxErrors()).isEqualTo(ValidationOptions.UNLIMITED);
+        assertThat(ValidationOptions.defaults().hasParams()).isFalse();
+        assertThat(ValidationOptions.builder().params(false, false).build().hasParams()).isTrue();
+        assertThat(ValidationOptions.builder().maxErrors(5).build().hasParams()).isFalse();
+        assertThatThrownBy(() -> ValidationOptions.builder().maxErrors(0).build()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void assertPrefixConsistent(String template, String rawComposition, List<String> errors) throws Exception {
+        assertThat(messages(getCompositionValidator().validate(template, rawComposition, ValidationOptions.defaults()))).isEqualTo(errors);
+        for (int maxErrors = 1; maxErrors <= errors.size() + 1; maxErrors++) {
+            List<String> truncatedErrors = messages(getCompositionValidator().validate(
+                    template,
+                    rawComposition,
+                    ValidationOptions.builder().maxErrors(maxErrors).build()));
+
+            assertThat(truncatedErrors).as("maxErrors=%s", maxErrors).isEqualTo(errors.subList(0, Math.min(maxErrors, errors.size())));
+        }
+    }
+
+    private static List<String> messages(List<ValidationErrorDto> errors) {
+        return errors.stream().map(ValidationErrorDto::getMessage).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,237 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package care.better.platform.web.template.extension;
+
+import care.better.platform.web.template.converter.CompiledTemplate;
+import care.better.platform.web.template.converter.ConversionResult;
+import care.better.platform.web.template.converter.ValidatedComposition;
+import care.better.platform.web.template.performance.PerformanceReport;
+import care.better.platform.web.template.provider.WebTemplateProvider;
+import care.better.platform.web.template.registry.BoundedTemplateRegistry;
+import care.better.platform.web.template.registry.TemplateRegistry;
+import care.better.platform.web.template.validator.CompositionValidator;
+import care.better.platform.web.template.validator.ValidationErrorDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class CallTimingsTest {
+    private static final String TEMPLATE = "<template><template_id><value> Demo Vitals </value></template_id></template>";
+    private static final String WEB_TEMPLATE = "{\"templateId\":\"Demo Vitals\"}";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void recordedCalls() throws Exception {
+        CallTimings callTimings = new CallTimings(directory, 20);
+        WebTemplateProvider webTemplateProvider = TimingProxy.wrap(WebTemplateProvider.class, (template, defaultLanguage) -> WEB_TEMPLATE, callTimings);
+        CompositionValidator compositionValidator = TimingProxy.wrap(CompositionValidator.class, new StubValidator(), callTimings);
+
+        webTemplateProvider.provide(TEMPLATE, "en");
+        compositionValidator.validate(TEMPLATE, "{\"invalid\":2}");
+        Throwable thrown = catchThrowable(() -> compositionValidator.validate(TEMPLATE, "fail"));
+        compositionValidator.isValid(TEMPLATE, "{}");
+
+        assertThat(thrown).isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("fail");
+        assertThat(callTimings.getCalls())
+                .extracting(
+                        CallTimings.Call::getOperation,
+                        CallTimings.Call::getTemplate,
+                        CallTimings.Call::getInputSize,
+                        CallTimings.Call::getOutputSize,
+                        CallTimings.Call::getException)
+                .containsExactly(
+                        tuple("WebTemplateProvider.provide", "Demo Vitals", 0L, (long)WEB_TEMPLATE.length(), null),
+                        tuple("CompositionValidator.validate", "Demo Vitals", 13L, 2L, null),
+                        tuple("CompositionValidator.validate", "Demo Vitals", 4L, -1L, IllegalArgumentException.class.getName()),
+                        tuple("CompositionValidator.isValid", "Demo Vitals", 2L, -1L, null));
+        assertThat(callTimings.getCalls()).allSatisfy(call -> assertThat(call.getWallMillis()).isGreaterThanOrEqualTo(0.0));
+    }
+
+    @Test
+    public void asynchronousCalls() throws Exception {
+        CallTimings callTimings = new CallTimings(directory, 20);
+        CompositionValidator compositionValidator = TimingProxy.wrap(CompositionValidator.class, new StubValidator(), callTimings);
+
+        CompletableFuture<List<ValidationErrorDto>> errors = compositionValidator.validateAsync(TEMPLATE, "{\"invalid\":3}", Runnable::run);
+
+        assertThat(errors.get()).hasSize(3);
+        assertThat(callTimings.getCalls())
+                .extracting(CallTimings.Call::getOperation, CallTimings.Call::getOutputSize, CallTimings.Call::getCpuMillis)
+                .containsExactly(tuple("CompositionValidator.validateAsync", 3L, -1.0));
+    }
+
+    @Test
+    public void writtenFiles() throws Exception {
+        CallTimings callTimings = new CallTimings(directory, 20);
+        callTimings.record(new CallTimings.Call("CompositionConverter.convertFlatToRaw", "Demo Vitals", 100L, 200L, 3_000_000L, 2_000_000L, null));
+        callTimings.record(new CallTimings.Call("CompositionValidator.validate", "#1a", 50L, -1L, 1_500_000L, -1L, "java.lang.IllegalStateException"));
+        callTimings.close();
+
+        assertThat(Files.readAllLines(directory.resolve(CallTimings.CSV_FILE), StandardCharsets.UTF_8)).containsExactly(
+                "operation,template,input size,output size,wall ms,cpu ms,exception",
+                "CompositionConverter.convertFlatToRaw,Demo Vitals,100,200,3.000,2.000,-",
+                "CompositionValidator.validate,#1a,50,-1,1.500,-,java.lang.IllegalStateException");
+
+        List<Map<String, Object>> jsonCalls = new ObjectMapper().readValue(
+                directory.resolve(CallTimings.JSON_FILE).toFile(),
+                new TypeReference<List<Map<String, Object>>>() {});
+        assertThat(jsonCalls).containsExactly(
+                json("CompositionConverter.convertFlatToRaw", "Demo Vitals", 100, 200, 3_000_000, 2_000_000, null),
+                json("CompositionValidator.validate", "#1a", 50, -1, 1_500_000, -1, "java.lang.IllegalStateException"));
+    }
+
+    @Test
+    public void noCallsNoFiles() throws Exception {
+        new CallTimings(directory, 20).close();
+
+        assertThat(directory.resolve(CallTimings.JSON_FILE)).doesNotExist();
+        assertThat(directory.resolve(CallTimings.CSV_FILE)).doesNotExist();
+    }
+
+    @Test
+    public void slowestCalls() {
+        CallTimings callTimings = new CallTimings(directory, 2);
+        List<CallTimings.Call> calls = Arrays.asList(
+                new CallTimings.Call("CompositionConverter.convertFlatToRaw", "A", 1L, 1L, 1_000_000L, 1_000_000L, null),
+                new CallTimings.Call("CompositionConverter.convertRawToFlat", "A", 1L, 1L, 5_000_000L, 4_000_000L, null),
+                new CallTimings.Call("CompositionValidator.validate", "B", 1L, 0L, 3_000_000L, -1L, null));
+
+        PerformanceReport report = callTimings.getSlowestCalls(calls);
+
+        assertThat(report.getRows()).containsExactly(
+                Arrays.asList("CompositionConverter.convertRawToFlat", "A", "1", "1", "5.000", "4.000"),
+                Arrays.asList("CompositionValidator.validate", "B", "1", "0", "3.000", "-"));
+    }
+
+    @Test
+    public void slowestOperations() {
+        CallTimings callTimings = new CallTimings(directory, 2);
+        List<CallTimings.Call> calls = Arrays.asList(
+                new CallTimings.Call("CompositionConverter.convertFlatToRaw", "A", 1L, 1L, 2_000_000L, 1_000_000L, null),
+                new CallTimings.Call("CompositionConverter.convertFlatToRaw", "A", 1L, 1L, 4_000_000L, 3_000_000L, null),
+                new CallTimings.Call("CompositionConverter.convertFlatToRaw", "B", 1L, 1L, 1_000_000L, 1_000_000L, null),
+                new CallTimings.Call("CompositionValidator.validate", "A", 1L, 0L, 5_000_000L, -1L, null));
+
+        PerformanceReport report = callTimings.getSlowestOperations(calls);
+
+        assertThat(report.getRows()).containsExactly(
+                Arrays.asList("CompositionConverter.convertFlatToRaw", "A", "2", "6.000", "4.000", "3.000"),
+                Arrays.asList("CompositionValidator.validate", "A", "1", "5.000", "-", "5.000"));
+    }
+
+    @Test
+    public void templateName() throws Exception {
+        CallTimings callTimings = new CallTimings(directory, 20);
+        WebTemplateProvider webTemplateProvider = TimingProxy.wrap(WebTemplateProvider.class, (template, defaultLanguage) -> WEB_TEMPLATE, callTimings);
+        TemplateRegistry templateRegistry = BoundedTemplateRegistry.withMaxSize(1, (templateId, version) -> TEMPLATE);
+
+        CompositionValidator compositionValidator = TimingProxy.wrap(CompositionValidator.class, new StubValidator(), callTimings);
+
+        webTemplateProvider.provide(templateRegistry, "Registered", "en");
+        webTemplateProvider.provide(templateRegistry, "Registered", "2", "en");
+        compositionValidator.validate(templateRegistry, "Registered", "{}");
+        compositionValidator.validate(templateRegistry, "Registered", "2", "{}");
+
+        assertThat(TimingProxy.getTemplateName(TEMPLATE)).isEqualTo("Demo Vitals");
+        assertThat(TimingProxy.getTemplateName("<template/>")).isEqualTo('#' + Integer.toHexString("<template/>".hashCode()));
+        assertThat(callTimings.getCalls())
+                .extracting(CallTimings.Call::getTemplate, CallTimings.Call::getInputSize)
+                .containsExactly(tuple("Registered", 0L), tuple("Registered", 0L), tuple("Registered", 2L), tuple("Registered", 2L));
+    }
+
+    @Test
+    public void sizes() {
+        Map<String, Object> flatComposition = new LinkedHashMap<>();
+        flatComposition.put("vitals/body_temperature|magnitude", 37.1);
+
+        assertThat(TimingProxy.getSize("{}")).isEqualTo(2L);
+        assertThat(TimingProxy.getSize(new ObjectMapper().createObjectNode().put("a", 1))).isEqualTo("{\"a\":1}".length());
+        assertThat(TimingProxy.getSize(flatComposition)).isEqualTo("{\"vitals/body_temperature|magnitude\":37.1}".length());
+        assertThat(TimingProxy.getSize(ImmutableList.of("{}", "[1]"))).isEqualTo(5L);
+        assertThat(TimingProxy.getSize(ImmutableList.of(ConversionResult.success("{}"), ConversionResult.failure(new IllegalStateException()))))
+                .isEqualTo(2L);
+        assertThat(TimingProxy.getSize(new ValidatedComposition("{\"a\":1}", errors(2)))).isEqualTo(7L);
+        assertThat(TimingProxy.getSize(errors(3))).isEqualTo(3L);
+        assertThat(TimingProxy.getSize(Collections.emptyList())).isEqualTo(0L);
+        assertThat(TimingProxy.getSize(new CompiledTemplate() {
+            @Override
+            public String getTemplateId() {
+                return "Demo Vitals";
+            }
+
+            @Override
+            public String getDefaultLanguage() {
+                return "en";
+            }
+        })).isEqualTo(-1L);
+    }
+
+    private static Map<String, Object> json(String operation, String template, int inputSize, int outputSize, int wallNanos, int cpuNanos, String exception) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("operation", operation);
+        map.put("template", template);
+        map.put("inputSize", inputSize);
+        map.put("outputSize", outputSize);
+        map.put("wallNanos", wallNanos);
+        map.put("cpuNanos", cpuNanos);
+        map.put("exception", exception);
+        return map;
+    }
+
+    private static List<ValidationErrorDto> errors(int count) {
+        List<ValidationErrorDto> errors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            errors.add(new ValidationErrorDto("error " + i, new String[0], 0));
+        }
+        return errors;
+    }
+
+    private static final class StubValidator implements CompositionValidator {
+        @Override
+        public List<ValidationErrorDto> validate(String template, String rawComposition) {
+            if ("fail".equals(rawComposition)) {
+                throw new IllegalArgumentException("fail");
+            }
+            int count = rawComposition.startsWith("{\"invalid\":") ? rawComposition.charAt(11) - '0' : 0;
+            return errors(count);
+        }
+
+        @Override
+        public List<ValidationErrorDto> validateWithParams(String template, String rawComposition, boolean strictTextValidation, boolean relaxedNameMatching) {
+            return validate(template, rawComposition);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.benchmark;
+
+/**
+ * Templates and RAW compositions from the bundled test resources used as benchmark workload.
+ */
+public enum BenchmarkCorpus {
+    DEMO_VITALS("/res/Demo Vitals.opt", "sl", "/res/Demo Vitals.json"),
+    DEMO_VITALS_DATA_VALUES("/res/Demo Vitals.opt", "sl", "/res/DataValueTestComposition.json"),
+    CHILD_GROWTH("/res/ZN - Child Growth Encounter.xml", "en", "/res/Child Growth.json"),
+    VITAL_FUNCTIONS("/res/ZN - Vital Functions Encounter.xml", "en", "/res/Vital Functions.json"),
+    ASSESSMENT_SCALES("/res/ZN - Assessment Scales Encounter.opt", "en", "/res/Assessment Scales.json"),
+    NURSING_CAREPLAN("/res/ZN - Nursing careplan Encounter.xml", "en", "/res/CompositionCareplan.json"),
+    DISCHARGE_PLAN("/res/TM - Discharge Plan Encounter.xml", "en", "/res/Discharge Plan Encounter.json"),
+    MEDICATION_LIST("/res/medication_list.opt", "sv", "/res/Medications.json"),
+    CLINICAL_SUMMARY_EVENTS("/res/clinical-summary-events2.opt", "en", "/res/localMissingValue.json"),
+    CLINICAL_NOTES("/res/TMC - Clinical Notes Report.opt", "en", "/res/xoredComposition.json"),
+    SPECIALIST_EXAMINATION("/res/openEHR-EHR-COMPOSITION.t_specialist_examination.opt", "ru", "/res/ru-compositionWithRelaxedNames.json");
+
+    private final String templateName;
+    private final String defaultLanguage;
+    private final String compositionName;
+
+    BenchmarkCorpus(String templateName, String defaultLanguage, String compositionName) {
+        this.templateName = templateName;
+        this.defaultLanguage = defaultLanguage;
+        this.compositionName = compositionName;
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+
+    public String getDefaultLanguage() {
+        return defaultLanguage;
+    }
+
+    public String getCompositionName() {
+        return compositionName;
+    }
+}
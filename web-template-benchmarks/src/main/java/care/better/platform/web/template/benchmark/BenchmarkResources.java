@@ -0,0 +1,80 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * Loads the benchmark resources and the implementations under benchmark.
+ */
+public final class BenchmarkResources {
+    /**
+     * Implementation parameter value that selects the first implementation found with {@link ServiceLoader}.
+     */
+    public static final String DEFAULT_IMPLEMENTATION = "default";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(JsonParser.Feature.ALLOW_COMMENTS);
+
+    private BenchmarkResources() {
+    }
+
+    /**
+     * Reads the test resource the same way as {@code AbstractWebTemplateTest.getFileContent}.
+     *
+     * @param fileName Resource name
+     * @return Resource content, normalized if the resource is a JSON file
+     */
+    public static String getFileContent(String fileName) throws IOException {
+        try (InputStream inputStream = BenchmarkResources.class.getResourceAsStream(fileName)) {
+            if (inputStream == null) {
+                throw new IllegalStateException(String.format("File with name %s was not found.", fileName));
+            }
+            String fileString = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+            return fileName.endsWith(".json") ? OBJECT_MAPPER.writeValueAsString(OBJECT_MAPPER.readTree(fileString)) : fileString;
+        }
+    }
+
+    /**
+     * Loads the implementation with {@link ServiceLoader}.
+     *
+     * @param interfaceClass Service provider interface
+     * @param implementation Fully qualified or simple class name of the implementation, or {@value #DEFAULT_IMPLEMENTATION}
+     * @return Implementation instance
+     */
+    public static <T> T load(Class<T> interfaceClass, String implementation) {
+        Iterator<T> iterator = ServiceLoader.load(interfaceClass).iterator();
+        if (!iterator.hasNext()) {
+            throw new IllegalStateException("No implementations of " + interfaceClass.getSimpleName() + " were found!");
+        }
+        while (iterator.hasNext()) {
+            T instance = iterator.next();
+            if (DEFAULT_IMPLEMENTATION.equals(implementation)
+                    || instance.getClass().getName().equals(implementation)
+                    || instance.getClass().getSimpleName().equals(implementation)) {
+                return instance;
+            }
+        }
+        throw new IllegalStateException(String.format("Implementation %s of %s was not found.", implementation, interfaceClass.getSimpleName()));
+    }
+}
@@ -0,0 +1,161 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.benchmark;
+
+import care.better.platform.web.template.context.CompositionBuilderContextKey;
+import care.better.platform.web.template.converter.CompiledTemplate;
+import care.better.platform.web.template.converter.CompositionConverter;
+import care.better.platform.web.template.provider.WebTemplateProvider;
+import care.better.platform.web.template.validator.CompositionValidator;
+import care.better.platform.web.template.validator.ValidationErrorDto;
+import com.google.common.collect.ImmutableMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to the first result in a fresh JVM. Every measurement runs in its own fork without warmup, and the states only read
+ * the resources, so the implementation classes are loaded inside the measured method.
+ * <p>
+ * The phases of each interface are measured cumulatively. {@code converterClassLoading} loads only the converter,
+ * {@code compile} additionally compiles the template with {@link CompositionConverter#compile(String, String)} and
+ * {@code convertFlatToRawCompiled} additionally converts with the compiled template. {@code providerClassLoading} and
+ * {@code validatorClassLoading} are the baselines of {@code provide} and {@code validate}. The difference between consecutive
+ * results of one chain is the time spent in the phase.
+ * <p>
+ * The {@code converter}, {@code validator} and {@code provider} parameters select the implementation of each interface
+ * separately. The templates are the {@link BenchmarkCorpus} and {@link FlatBenchmarkCorpus} entries rather than the whole
+ * test corpus, since every combination of parameters costs several fresh JVMs.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class ColdStartBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ConverterState {
+        @Param(BenchmarkResources.DEFAULT_IMPLEMENTATION)
+        public String converter;
+    }
+
+    @State(Scope.Benchmark)
+    public static class ValidatorState {
+        @Param(BenchmarkResources.DEFAULT_IMPLEMENTATION)
+        public String validator;
+    }
+
+    @State(Scope.Benchmark)
+    public static class ProviderState {
+        @Param(BenchmarkResources.DEFAULT_IMPLEMENTATION)
+        public String provider;
+    }
+
+    @State(Scope.Benchmark)
+    public static class TemplateState {
+        @Param
+        public BenchmarkCorpus composition;
+
+        String template;
+        String rawComposition;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            template = BenchmarkResources.getFileContent(composition.getTemplateName());
+            rawComposition = BenchmarkResources.getFileContent(composition.getCompositionName());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FlatState {
+        @Param
+        public FlatBenchmarkCorpus flatComposition;
+
+        String template;
+        String flatCompositionString;
+        Map<String, Object> compositionBuilderContext;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            template = BenchmarkResources.getFileContent(flatComposition.getTemplateName());
+            flatCompositionString = BenchmarkResources.getFileContent(flatComposition.getCompositionName());
+            compositionBuilderContext = ImmutableMap.of(
+                    CompositionBuilderContextKey.LANGUAGE.getKey(), flatComposition.getDefaultLanguage(),
+                    CompositionBuilderContextKey.TERRITORY.getKey(), "SI",
+                    CompositionBuilderContextKey.COMPOSER_NAME.getKey(), "composer");
+        }
+    }
+
+    @Benchmark
+    public CompositionConverter converterClassLoading(ConverterState converterState) {
+        return BenchmarkResources.load(CompositionConverter.class, converterState.converter);
+    }
+
+    @Benchmark
+    public WebTemplateProvider providerClassLoading(ProviderState providerState) {
+        return BenchmarkResources.load(WebTemplateProvider.class, providerState.provider);
+    }
+
+    @Benchmark
+    public CompositionValidator validatorClassLoading(ValidatorState validatorState) {
+        return BenchmarkResources.load(CompositionValidator.class, validatorState.validator);
+    }
+
+    @Benchmark
+    public String provide(TemplateState state, ProviderState providerState) throws Exception {
+        return BenchmarkResources.load(WebTemplateProvider.class, providerState.provider).provide(state.template, state.composition.getDefaultLanguage());
+    }
+
+    @Benchmark
+    public List<ValidationErrorDto> validate(TemplateState state, ValidatorState validatorState) throws Exception {
+        return BenchmarkResources.load(CompositionValidator.class, validatorState.validator).validate(state.template, state.rawComposition);
+    }
+
+    @Benchmark
+    public String convertFlatToRaw(FlatState state, ConverterState converterState) throws Exception {
+        return BenchmarkResources.load(CompositionConverter.class, converterState.converter).convertFlatToRaw(
+                state.template,
+                state.flatComposition.getDefaultLanguage(),
+                state.flatCompositionString,
+                state.compositionBuilderContext);
+    }
+
+    @Benchmark
+    public CompiledTemplate compile(FlatState state, ConverterState converterState) throws Exception {
+        return BenchmarkResources.load(CompositionConverter.class, converterState.converter).compile(state.template, state.flatComposition.getDefaultLanguage());
+    }
+
+    @Benchmark
+    public String convertFlatToRawCompiled(FlatState state, ConverterState converterState) throws Exception {
+        CompositionConverter compositionConverter = BenchmarkResources.load(CompositionConverter.class, converterState.converter);
+        CompiledTemplate compiledTemplate = compositionConverter.compile(state.template, state.flatComposition.getDefaultLanguage());
+        return compositionConverter.convertFlatToRaw(compiledTemplate, state.flatCompositionString, state.compositionBuilderContext);
+    }
+}
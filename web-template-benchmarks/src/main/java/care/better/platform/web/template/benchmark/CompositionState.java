@@ -0,0 +1,82 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.benchmark;
+
+import care.better.platform.web.template.context.CompositionBuilderContextKey;
+import care.better.platform.web.template.converter.CompositionConverter;
+import care.better.platform.web.template.provider.WebTemplateProvider;
+import care.better.platform.web.template.validator.CompositionValidator;
+import com.google.common.collect.ImmutableMap;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Template, composition in all formats and implementations for one benchmark trial. The {@code converter}, {@code validator}
+ * and {@code provider} parameters select the implementation of each service provider interface separately.
+ */
+@State(Scope.Benchmark)
+public class CompositionState {
+    @Param
+    public BenchmarkCorpus composition;
+
+    @Param(BenchmarkResources.DEFAULT_IMPLEMENTATION)
+    public String converter;
+
+    @Param(BenchmarkResources.DEFAULT_IMPLEMENTATION)
+    public String validator;
+
+    @Param(BenchmarkResources.DEFAULT_IMPLEMENTATION)
+    public String provider;
+
+    CompositionConverter compositionConverter;
+    CompositionValidator compositionValidator;
+    WebTemplateProvider webTemplateProvider;
+
+    String template;
+    String defaultLanguage;
+    String rawComposition;
+    String flatComposition;
+    String structuredComposition;
+    Map<String, Object> compositionBuilderContext;
+    Map<String, Object> deltaValues;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        compositionConverter = BenchmarkResources.load(CompositionConverter.class, converter);
+        compositionValidator = BenchmarkResources.load(CompositionValidator.class, validator);
+        webTemplateProvider = BenchmarkResources.load(WebTemplateProvider.class, provider);
+
+        template = BenchmarkResources.getFileContent(composition.getTemplateName());
+        defaultLanguage = composition.getDefaultLanguage();
+        rawComposition = BenchmarkResources.getFileContent(composition.getCompositionName());
+        flatComposition = compositionConverter.convertRawToFlat(template, defaultLanguage, rawComposition);
+        structuredComposition = compositionConverter.convertRawToStructured(template, defaultLanguage, rawComposition);
+        compositionBuilderContext = ImmutableMap.of(
+                CompositionBuilderContextKey.LANGUAGE.getKey(), defaultLanguage,
+                CompositionBuilderContextKey.TERRITORY.getKey(), "SI",
+                CompositionBuilderContextKey.COMPOSER_NAME.getKey(), "composer",
+                CompositionBuilderContextKey.START_TIME.getKey(), OffsetDateTime.of(2020, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC));
+        deltaValues = Collections.emptyMap();
+    }
+}
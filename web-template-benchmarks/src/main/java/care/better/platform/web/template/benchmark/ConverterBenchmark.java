@@ -0,0 +1,82 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConverterBenchmark {
+
+    @Benchmark
+    public String convertRawToFlat(CompositionState state) throws Exception {
+        return state.compositionConverter.convertRawToFlat(state.template, state.defaultLanguage, state.rawComposition);
+    }
+
+    @Benchmark
+    public String convertRawToStructured(CompositionState state) throws Exception {
+        return state.compositionConverter.convertRawToStructured(state.template, state.defaultLanguage, state.rawComposition);
+    }
+
+    @Benchmark
+    public String convertFlatToRaw(CompositionState state) throws Exception {
+        return state.compositionConverter.convertFlatToRaw(state.template, state.defaultLanguage, state.flatComposition, state.compositionBuilderContext);
+    }
+
+    @Benchmark
+    public String convertFlatToStructured(CompositionState state) throws Exception {
+        return state.compositionConverter.convertFlatToStructured(state.template, state.defaultLanguage, state.flatComposition, state.compositionBuilderContext);
+    }
+
+    @Benchmark
+    public String convertStructuredToRaw(CompositionState state) throws Exception {
+        return state.compositionConverter.convertStructuredToRaw(
+                state.template,
+                state.defaultLanguage,
+                state.structuredComposition,
+                state.compositionBuilderContext);
+    }
+
+    @Benchmark
+    public String convertStructuredToFlat(CompositionState state) throws Exception {
+        return state.compositionConverter.convertStructuredToFlat(
+                state.template,
+                state.defaultLanguage,
+                state.structuredComposition,
+                state.compositionBuilderContext);
+    }
+
+    @Benchmark
+    public String updateRawComposition(CompositionState state) throws Exception {
+        return state.compositionConverter.updateRawComposition(
+                state.template,
+                state.defaultLanguage,
+                state.rawComposition,
+                state.compositionBuilderContext,
+                state.deltaValues);
+    }
+}
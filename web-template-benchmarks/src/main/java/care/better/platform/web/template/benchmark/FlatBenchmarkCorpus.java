@@ -0,0 +1,50 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.benchmark;
+
+/**
+ * Templates and FLAT compositions from the bundled test resources, for benchmarks that must not derive the FLAT composition
+ * with the converter under benchmark.
+ */
+public enum FlatBenchmarkCorpus {
+    SIMPLE_BODY_OBSERVATION("/res/TM - Simple Body Observation2.xml", "en", "/res/Simple Body Observation2(1).json"),
+    VITAL_FUNCTIONS("/res/ZN - Vital Functions Encounter.xml", "en", "/res/Vital Functions Encounter.json"),
+    FALLS_CARE_PLAN("/res/Falls care plan.opt", "en", "/res/Falls care plan.json"),
+    RADIOGRAPHER_MAMMOGRAPHY("/res/TMDS Breast - Radiographer Mammography Report.xml", "en", "/res/Radiographer_Mammography.json"),
+    MEDICATION_ERROR_REPORT("/res/MSE - Medication Error Report.opt", "sl", "/res/Error Report.json");
+
+    private final String templateName;
+    private final String defaultLanguage;
+    private final String compositionName;
+
+    FlatBenchmarkCorpus(String templateName, String defaultLanguage, String compositionName) {
+        this.templateName = templateName;
+        this.defaultLanguage = defaultLanguage;
+        this.compositionName = compositionName;
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+
+    public String getDefaultLanguage() {
+        return defaultLanguage;
+    }
+
+    public String getCompositionName() {
+        return compositionName;
+    }
+}
@@ -0,0 +1,259 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.benchmark;
+
+import care.better.platform.web.template.context.CompositionBuilderContextKey;
+import care.better.platform.web.template.converter.CompositionConverter;
+import care.better.platform.web.template.performance.PerformanceReport;
+import care.better.platform.web.template.provider.WebTemplateProvider;
+import care.better.platform.web.template.validator.CompositionValidator;
+import com.google.common.collect.ImmutableMap;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs {@code convertFlatToRaw}, {@code convertRawToFlat}, {@code validate} and {@code provide} on shared converter, validator
+ * and provider instances at 1, 2, 4, ... threads and reports the throughput, the scaling efficiency and the time each thread
+ * spent blocked on monitors or waiting, as reported by {@link ThreadMXBean} contention monitoring.
+ * <p>
+ * Arguments: {@code --composition DEMO_VITALS --converter default --validator default --provider default
+ * --max-threads <processors> --warmup 5 --duration 10} (durations in seconds). The implementations are selected as with the
+ * {@code converter}, {@code validator} and {@code provider} parameters of the JMH benchmarks.
+ */
+public final class ThreadScalingBenchmark {
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final List<String> OPTIONS = Arrays.asList("composition", "converter", "validator", "provider", "max-threads", "warmup", "duration");
+
+    private final BenchmarkCorpus composition;
+    private final String converter;
+    private final String validator;
+    private final String provider;
+    private final int maxThreads;
+    private final long warmupMillis;
+    private final long durationMillis;
+
+    private ThreadScalingBenchmark(
+            BenchmarkCorpus composition,
+            String converter,
+            String validator,
+            String provider,
+            int maxThreads,
+            long warmupMillis,
+            long durationMillis) {
+        this.composition = composition;
+        this.converter = converter;
+        this.validator = validator;
+        this.provider = provider;
+        this.maxThreads = maxThreads;
+        this.warmupMillis = warmupMillis;
+        this.durationMillis = durationMillis;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException(String.format("Invalid argument %s.", args[i]));
+            }
+            if (!OPTIONS.contains(args[i].substring(2))) {
+                throw new IllegalArgumentException(String.format("Unknown argument %s, the arguments are --%s.", args[i], String.join(", --", OPTIONS)));
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+
+        ThreadScalingBenchmark benchmark = new ThreadScalingBenchmark(
+                BenchmarkCorpus.valueOf(options.getOrDefault("composition", BenchmarkCorpus.DEMO_VITALS.name())),
+                options.getOrDefault("converter", BenchmarkResources.DEFAULT_IMPLEMENTATION),
+                options.getOrDefault("validator", BenchmarkResources.DEFAULT_IMPLEMENTATION),
+                options.getOrDefault("provider", BenchmarkResources.DEFAULT_IMPLEMENTATION),
+                Integer.parseInt(options.getOrDefault("max-threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                TimeUnit.SECONDS.toMillis(Long.parseLong(options.getOrDefault("warmup", "5"))),
+                TimeUnit.SECONDS.toMillis(Long.parseLong(options.getOrDefault("duration", "10"))));
+
+        PerformanceReport report = benchmark.run();
+        System.out.println(report);
+        Path csv = report.writeCsv("thread-scaling.csv");
+        if (csv != null) {
+            System.out.println("Written to " + csv);
+        }
+    }
+
+    private PerformanceReport run() throws Exception {
+        if (THREAD_MX_BEAN.isThreadContentionMonitoringSupported()) {
+            THREAD_MX_BEAN.setThreadContentionMonitoringEnabled(true);
+        }
+
+        CompositionConverter compositionConverter = BenchmarkResources.load(CompositionConverter.class, converter);
+        CompositionValidator compositionValidator = BenchmarkResources.load(CompositionValidator.class, validator);
+        WebTemplateProvider webTemplateProvider = BenchmarkResources.load(WebTemplateProvider.class, provider);
+        String template = BenchmarkResources.getFileContent(composition.getTemplateName());
+        String defaultLanguage = composition.getDefaultLanguage();
+        String rawComposition = BenchmarkResources.getFileContent(composition.getCompositionName());
+        String flatComposition = compositionConverter.convertRawToFlat(template, defaultLanguage, rawComposition);
+        Map<String, Object> compositionBuilderContext = ImmutableMap.of(
+                CompositionBuilderContextKey.LANGUAGE.getKey(), defaultLanguage,
+                CompositionBuilderContextKey.TERRITORY.getKey(), "SI",
+                CompositionBuilderContextKey.COMPOSER_NAME.getKey(), "composer");
+
+        Map<String, Callable<?>> operations = new LinkedHashMap<>();
+        operations.put("convertFlatToRaw", () -> compositionConverter.convertFlatToRaw(template, defaultLanguage, flatComposition, compositionBuilderContext));
+        operations.put("convertRawToFlat", () -> compositionConverter.convertRawToFlat(template, defaultLanguage, rawComposition));
+        operations.put("validate", () -> compositionValidator.validate(template, rawComposition));
+        operations.put("provide", () -> webTemplateProvider.provide(template, defaultLanguage));
+
+        PerformanceReport report = new PerformanceReport(
+                String.format(
+                        "Thread scaling of %s with %s, %s and %s",
+                        composition,
+                        compositionConverter.getClass().getName(),
+                        compositionValidator.getClass().getName(),
+                        webTemplateProvider.getClass().getName()),
+                "operation", "threads", "ops/s", "efficiency", "blocked ms/thread", "blocked/thread", "waited ms/thread", "waited/thread");
+        for (Map.Entry<String, Callable<?>> operation : operations.entrySet()) {
+            double singleThreadThroughput = 0.0;
+            for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads)) {
+                Result result = measure(operation.getValue(), threads);
+                if (threads == 1) {
+                    singleThreadThroughput = result.throughput;
+                }
+                report.addRow(
+                        operation.getKey(),
+                        threads,
+                        result.throughput,
+                        singleThreadThroughput > 0.0 ? result.throughput / (threads * singleThreadThroughput) : "-",
+                        result.blockedMillis / (double)threads,
+                        result.blockedCount / (double)threads,
+                        result.waitedMillis / (double)threads,
+                        result.waitedCount / (double)threads);
+            }
+        }
+        return report;
+    }
+
+    private int nextThreadCount(int threads) {
+        return threads < maxThreads && threads * 2 > maxThreads ? maxThreads : threads * 2;
+    }
+
+    private Result measure(Callable<?> operation, int threadCount) throws Exception {
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            Worker worker = new Worker(operation, failure);
+            worker.setName("thread-scaling-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+        workers.forEach(Thread::start);
+
+        try {
+            Thread.sleep(warmupMillis);
+            Snapshot start = new Snapshot(workers);
+            long startTime = System.nanoTime();
+            Thread.sleep(durationMillis);
+            Snapshot end = new Snapshot(workers);
+            long elapsed = System.nanoTime() - startTime;
+
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+            return new Result(
+                    (end.operations - start.operations) * 1.0e9 / elapsed,
+                    end.blockedMillis - start.blockedMillis,
+                    end.blockedCount - start.blockedCount,
+                    end.waitedMillis - start.waitedMillis,
+                    end.waitedCount - start.waitedCount);
+        } finally {
+            for (Worker worker : workers) {
+                worker.running = false;
+            }
+            for (Worker worker : workers) {
+                worker.join();
+            }
+        }
+    }
+
+    private static final class Worker extends Thread {
+        private final Callable<?> operation;
+        private final AtomicReference<Exception> failure;
+        private volatile boolean running = true;
+        private volatile long operations;
+
+        private Worker(Callable<?> operation, AtomicReference<Exception> failure) {
+            this.operation = operation;
+            this.failure = failure;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    operation.call();
+                    operations++;
+                }
+            } catch (Exception e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        private long operations;
+        private long blockedMillis;
+        private long blockedCount;
+        private long waitedMillis;
+        private long waitedCount;
+
+        private Snapshot(List<Worker> workers) {
+            for (Worker worker : workers) {
+                operations += worker.operations;
+                ThreadInfo threadInfo = THREAD_MX_BEAN.getThreadInfo(worker.getId());
+                if (threadInfo != null) {
+                    blockedMillis += Math.max(threadInfo.getBlockedTime(), 0L);
+                    blockedCount += threadInfo.getBlockedCount();
+                    waitedMillis += Math.max(threadInfo.getWaitedTime(), 0L);
+                    waitedCount += threadInfo.getWaitedCount();
+                }
+            }
+        }
+    }
+
+    private static final class Result {
+        private final double throughput;
+        private final long blockedMillis;
+        private final long blockedCount;
+        private final long waitedMillis;
+        private final long waitedCount;
+
+        private Result(double throughput, long blockedMillis, long blockedCount, long waitedMillis, long waitedCount) {
+            this.throughput = throughput;
+            this.blockedMillis = blockedMillis;
+            this.blockedCount = blockedCount;
+            this.waitedMillis = waitedMillis;
+            this.waitedCount = waitedCount;
+        }
+    }
+}
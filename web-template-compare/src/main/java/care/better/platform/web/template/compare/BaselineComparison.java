@@ -0,0 +1,146 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.compare;
+
+import care.better.platform.web.template.performance.PerformanceReport;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares the measurements of a candidate implementation with a baseline, by template and operation. Both files are either
+ * {@code web-template-timings.json} reports or JMH result files.
+ * <p>
+ * The slowdown is the ratio of the candidate and baseline medians minus one, inverted for throughput, so positive values
+ * are always slower. A slowdown above the threshold is a regression when the Mann-Whitney U test p-value is below alpha.
+ * <p>
+ * Usage: {@code BaselineComparison [--threshold 10] [--alpha 0.05] [--csv <file>] <baseline> <candidate>}, with the
+ * threshold in percent. The exit code is 1 when there are regressions and 2 when the arguments or files are invalid.
+ */
+public final class BaselineComparison {
+    static final int REGRESSION = 1;
+    static final int INVALID = 2;
+
+    private static final String USAGE = "Usage: BaselineComparison [--threshold 10] [--alpha 0.05] [--csv <file>] <baseline> <candidate>";
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        double threshold = 10.0;
+        double alpha = 0.05;
+        Path csv = null;
+        List<Path> files = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].startsWith("--")) {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException(String.format("Missing value of %s.", args[i]));
+                    }
+                    String value = args[++i];
+                    switch (args[i - 1]) {
+                        case "--threshold":
+                            threshold = Double.parseDouble(value);
+                            break;
+                        case "--alpha":
+                            alpha = Double.parseDouble(value);
+                            break;
+                        case "--csv":
+                            csv = Paths.get(value);
+                            break;
+                        default:
+                            throw new IllegalArgumentException(String.format("Unknown option %s.", args[i - 1]));
+                    }
+                } else {
+                    files.add(Paths.get(args[i]));
+                }
+            }
+            if (files.size() != 2) {
+                throw new IllegalArgumentException("Baseline and candidate files are required.");
+            }
+
+            PerformanceReport report = compare(Measurements.read(files.get(0)), Measurements.read(files.get(1)), threshold, alpha);
+            out.println(report);
+            if (csv != null) {
+                report.writeCsv(csv);
+            }
+            long regressions = report.getRows().stream().filter(row -> "REGRESSION".equals(row.get(row.size() - 1))).count();
+            out.println(regressions == 0L
+                                ? "No regressions above " + threshold + "%."
+                                : regressions + " regressions above " + threshold + "%.");
+            return regressions == 0L ? 0 : REGRESSION;
+        } catch (Exception e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return INVALID;
+        }
+    }
+
+    static PerformanceReport compare(Map<List<String>, Measurement> baseline, Map<List<String>, Measurement> candidate, double threshold, double alpha) {
+        PerformanceReport report = new PerformanceReport(
+                "Candidate compared with baseline, threshold " + threshold + "%, alpha " + alpha,
+                "template", "operation", "unit", "baseline median", "candidate median", "slowdown %", "p-value", "result");
+
+        Set<List<String>> keys = new LinkedHashSet<>(baseline.keySet());
+        keys.addAll(candidate.keySet());
+        for (List<String> key : keys) {
+            Measurement baselineMeasurement = baseline.get(key);
+            Measurement candidateMeasurement = candidate.get(key);
+            if (baselineMeasurement == null || candidateMeasurement == null) {
+                Measurement measurement = baselineMeasurement == null ? candidateMeasurement : baselineMeasurement;
+                report.addRow(
+                        key.get(0),
+                        key.get(1),
+                        measurement.getUnit(),
+                        baselineMeasurement == null ? "-" : baselineMeasurement.getMedian(),
+                        candidateMeasurement == null ? "-" : candidateMeasurement.getMedian(),
+                        "-",
+                        "-",
+                        baselineMeasurement == null ? "candidate only" : "baseline only");
+                continue;
+            }
+
+            double baselineMedian = baselineMeasurement.getMedian();
+            double candidateMedian = candidateMeasurement.getMedian();
+            double slowdown = 100.0 * (baselineMeasurement.isHigherBetter() ? baselineMedian / candidateMedian - 1.0 : candidateMedian / baselineMedian - 1.0);
+            double pValue = new MannWhitneyU(baselineMeasurement.toArray(), candidateMeasurement.toArray()).getPValue();
+
+            String result;
+            if (pValue >= alpha) {
+                result = "not significant";
+            } else if (slowdown > threshold) {
+                result = "REGRESSION";
+            } else if (slowdown < -threshold) {
+                result = "improvement";
+            } else {
+                result = "ok";
+            }
+            report.addRow(key.get(0), key.get(1), baselineMeasurement.getUnit(), baselineMedian, candidateMedian, slowdown, pValue, result);
+        }
+        report.sortDescending("slowdown %");
+        return report;
+    }
+}
@@ -0,0 +1,95 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.compare;
+
+import java.util.Arrays;
+
+/**
+ * Two-sided Mann-Whitney U test of two independent samples, using the normal approximation with tie and continuity
+ * correction. The approximation needs about 8 or more values in each sample; with fewer values the p-value is only a rough
+ * estimate and is never below 0.05 for samples of 3 or fewer values.
+ */
+public final class MannWhitneyU {
+    private final double u;
+    private final double pValue;
+
+    public MannWhitneyU(double[] first, double[] second) {
+        if (first.length == 0 || second.length == 0) {
+            throw new IllegalArgumentException(String.format("Both samples must have values, had %s and %s.", first.length, second.length));
+        }
+        int n1 = first.length;
+        int n2 = second.length;
+        int n = n1 + n2;
+
+        double[][] values = new double[n][];
+        for (int i = 0; i < n; i++) {
+            values[i] = new double[]{i < n1 ? first[i] : second[i - n1], i < n1 ? 0.0 : 1.0};
+        }
+        Arrays.sort(values, (a, b) -> Double.compare(a[0], b[0]));
+
+        double firstRankSum = 0.0;
+        double tieCorrection = 0.0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j < n && values[j][0] == values[i][0]) {
+                j++;
+            }
+            double rank = (i + 1 + j) / 2.0;
+            for (int k = i; k < j; k++) {
+                if (values[k][1] == 0.0) {
+                    firstRankSum += rank;
+                }
+            }
+            double ties = j - i;
+            tieCorrection += ties * ties * ties - ties;
+            i = j;
+        }
+
+        u = firstRankSum - n1 * (n1 + 1) / 2.0;
+        double mean = n1 * (double)n2 / 2.0;
+        double variance = n1 * (double)n2 / 12.0 * (n + 1 - tieCorrection / (n * (n - 1.0)));
+        if (variance <= 0.0) {
+            pValue = 1.0;
+        } else {
+            double z = Math.max(Math.abs(u - mean) - 0.5, 0.0) / Math.sqrt(variance);
+            pValue = Math.min(1.0, erfc(z / Math.sqrt(2.0)));
+        }
+    }
+
+    /**
+     * Returns the U statistic of the first sample: the number of pairs in which the first sample value is greater, with ties
+     * counted as one half.
+     *
+     * @return U statistic
+     */
+    public double getU() {
+        return u;
+    }
+
+    public double getPValue() {
+        return pValue;
+    }
+
+    /**
+     * Complementary error function, with a fractional error below 1.2e-7 (Numerical Recipes, erfcc).
+     */
+    private static double erfc(double x) {
+        double t = 1.0 / (1.0 + 0.5 * Math.abs(x));
+        double value = t * Math.exp(-x * x - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418 + t * (-0.18628806
+                + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587 + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0.0 ? value : 2.0 - value;
+    }
+}
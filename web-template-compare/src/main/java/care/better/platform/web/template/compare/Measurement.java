@@ -0,0 +1,84 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.compare;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Samples of one operation on one template, read from a test timing report or a JMH result file.
+ */
+public final class Measurement {
+    private final String template;
+    private final String operation;
+    private final String unit;
+    private final boolean higherBetter;
+    private final List<Double> samples = new ArrayList<>();
+
+    Measurement(String template, String operation, String unit, boolean higherBetter) {
+        this.template = template;
+        this.operation = operation;
+        this.unit = unit;
+        this.higherBetter = higherBetter;
+    }
+
+    static Measurement getOrAdd(Map<List<String>, Measurement> measurements, String template, String operation, String unit, boolean higherBetter) {
+        return measurements.computeIfAbsent(Arrays.asList(template, operation), key -> new Measurement(template, operation, unit, higherBetter));
+    }
+
+    void add(double sample) {
+        samples.add(sample);
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * Returns whether higher values are better, as for throughput. Otherwise lower values are better, as for time.
+     *
+     * @return {@code true} for throughput
+     */
+    public boolean isHigherBetter() {
+        return higherBetter;
+    }
+
+    public List<Double> getSamples() {
+        return Collections.unmodifiableList(samples);
+    }
+
+    double[] toArray() {
+        return samples.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    double getMedian() {
+        double[] values = toArray();
+        Arrays.sort(values);
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2.0;
+    }
+}
@@ -0,0 +1,140 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.compare;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Reads the measurements by template and operation from a {@code web-template-timings.json} report written by the test
+ * extension or from a JMH result file written with {@code -rf json}.
+ * <p>
+ * Timing reports have one wall time sample in milliseconds per call, calls that threw an exception are left out. JMH
+ * results have one sample per measurement iteration of each fork. The template of a JMH result is its {@code composition}
+ * or {@code flatComposition} parameter. The implementation parameters {@code converter}, {@code validator} and
+ * {@code provider} are left out, so that the results of two implementations can be compared, the other parameters are added
+ * to the operation.
+ */
+public final class Measurements {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Set<String> IMPLEMENTATION_PARAMS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("converter", "validator", "provider")));
+
+    private Measurements() {
+    }
+
+    /**
+     * Reads the measurements.
+     *
+     * @param path Timing report or JMH result file
+     * @return Measurements by template and operation, in the order of the file
+     * @throws IllegalArgumentException if the file is neither a timing report nor a JMH result file, or if it is a JMH result
+     *                                  file with the results of several implementations
+     */
+    public static Map<List<String>, Measurement> read(Path path) throws IOException {
+        JsonNode root = OBJECT_MAPPER.readTree(path.toFile());
+        if (root == null || !root.isArray()) {
+            throw new IllegalArgumentException(String.format("%s is not a timing report or a JMH result file.", path));
+        }
+
+        Map<List<String>, Measurement> measurements = new LinkedHashMap<>();
+        Map<List<String>, List<String>> implementations = new HashMap<>();
+        for (JsonNode node : root) {
+            if (node.has("benchmark")) {
+                readJmhResult(path, node, measurements, implementations);
+            } else if (node.has("operation") && node.has("wallNanos")) {
+                readCall(node, measurements);
+            } else {
+                throw new IllegalArgumentException(String.format("%s is not a timing report or a JMH result file.", path));
+            }
+        }
+        return measurements;
+    }
+
+    private static void readCall(JsonNode node, Map<List<String>, Measurement> measurements) {
+        if (node.hasNonNull("exception")) {
+            return;
+        }
+        Measurement measurement = Measurement.getOrAdd(measurements, node.path("template").asText("-"), node.get("operation").asText(), "ms", false);
+        measurement.add(node.get("wallNanos").asLong() / 1.0e6);
+    }
+
+    private static void readJmhResult(
+            Path path,
+            JsonNode node,
+            Map<List<String>, Measurement> measurements,
+            Map<List<String>, List<String>> implementations) {
+        String benchmark = node.get("benchmark").asText();
+        int methodIndex = benchmark.lastIndexOf('.');
+        int classIndex = benchmark.lastIndexOf('.', methodIndex - 1);
+        String operation = benchmark.substring(classIndex + 1);
+
+        String template = "-";
+        List<String> params = new ArrayList<>();
+        List<String> implementationParams = new ArrayList<>();
+        for (Iterator<Map.Entry<String, JsonNode>> iterator = node.path("params").fields(); iterator.hasNext(); ) {
+            Map.Entry<String, JsonNode> param = iterator.next();
+            if ("composition".equals(param.getKey()) || "flatComposition".equals(param.getKey())) {
+                template = param.getValue().asText();
+            } else if (IMPLEMENTATION_PARAMS.contains(param.getKey())) {
+                implementationParams.add(param.getKey() + '=' + param.getValue().asText());
+            } else {
+                params.add(param.getKey() + '=' + param.getValue().asText());
+            }
+        }
+        if (!params.isEmpty()) {
+            operation += params.toString();
+        }
+
+        List<String> key = Arrays.asList(template, operation);
+        List<String> implementation = implementations.putIfAbsent(key, implementationParams);
+        if (implementation != null && !Objects.equals(implementation, implementationParams)) {
+            throw new IllegalArgumentException(String.format(
+                    "%s has results of %s on %s for both %s and %s, compare the results of one implementation per file.",
+                    path,
+                    operation,
+                    template,
+                    implementation,
+                    implementationParams));
+        }
+
+        JsonNode primaryMetric = node.path("primaryMetric");
+        Measurement measurement = Measurement.getOrAdd(
+                measurements,
+                template,
+                operation,
+                primaryMetric.path("scoreUnit").asText(),
+                "thrpt".equals(node.path("mode").asText()));
+        for (JsonNode fork : primaryMetric.path("rawData")) {
+            for (JsonNode iteration : fork) {
+                measurement.add(iteration.asDouble());
+            }
+        }
+    }
+}
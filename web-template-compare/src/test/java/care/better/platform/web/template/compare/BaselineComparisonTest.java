@@ -0,0 +1,143 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.compare;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BaselineComparisonTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void timingReports() throws Exception {
+        Path baseline = write("baseline.json", timings(1.0, 1.0));
+        Path candidate = write("candidate.json", timings(1.5, 1.02));
+
+        Map<List<String>, Measurement> measurements = Measurements.read(candidate);
+        assertThat(measurements).containsOnlyKeys(
+                Arrays.asList("Demo Vitals", "CompositionConverter.convertRawToFlat"),
+                Arrays.asList("Demo Vitals", "CompositionValidator.validate"));
+        assertThat(measurements.get(Arrays.asList("Demo Vitals", "CompositionConverter.convertRawToFlat")).getSamples()).hasSize(20);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int exitCode = BaselineComparison.run(new String[]{"--threshold", "10", baseline.toString(), candidate.toString()}, print(out), print(new ByteArrayOutputStream()));
+
+        String output = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertThat(exitCode).isEqualTo(BaselineComparison.REGRESSION);
+        assertThat(output).containsPattern("convertRawToFlat +ms .*REGRESSION");
+        assertThat(output).doesNotContainPattern("validate .*REGRESSION");
+        assertThat(output).contains("1 regressions above 10.0%.");
+
+        assertThat(BaselineComparison.run(new String[]{"--threshold", "60", baseline.toString(), candidate.toString()}, print(out), print(out))).isZero();
+    }
+
+    @Test
+    public void jmhResults() throws Exception {
+        Path baseline = write("baseline.json", '[' + jmh(1000.0, "default") + ']');
+        Path candidate = write("candidate.json", '[' + jmh(800.0, "candidate") + ']');
+
+        Map<List<String>, Measurement> measurements = Measurements.read(baseline);
+        Measurement measurement = measurements.get(Arrays.asList("DEMO_VITALS", "ConverterBenchmark.convertFlatToRaw[size=10]"));
+        assertThat(measurement.isHigherBetter()).isTrue();
+        assertThat(measurement.getUnit()).isEqualTo("ops/ms");
+        assertThat(measurement.getSamples()).hasSize(10);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(BaselineComparison.run(new String[]{baseline.toString(), candidate.toString()}, print(out), print(out))).isEqualTo(BaselineComparison.REGRESSION);
+        assertThat(BaselineComparison.run(new String[]{candidate.toString(), baseline.toString()}, print(out), print(out))).isZero();
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).contains("improvement");
+    }
+
+    @Test
+    public void jmhResultsOfSeveralImplementations() throws Exception {
+        Path results = write("results.json", '[' + jmh(1000.0, "default") + ',' + jmh(800.0, "candidate") + ']');
+
+        assertThatThrownBy(() -> Measurements.read(results))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("converter=default")
+                .hasMessageContaining("converter=candidate");
+    }
+
+    @Test
+    public void invalidArguments() throws Exception {
+        Path baseline = write("baseline.json", timings(1.0, 1.0));
+        Path invalid = write("invalid.json", "{\"operation\": \"convertRawToFlat\"}");
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        assertThat(BaselineComparison.run(new String[]{baseline.toString()}, print(err), print(err))).isEqualTo(BaselineComparison.INVALID);
+        assertThat(BaselineComparison.run(new String[]{"--unknown", "1", baseline.toString(), baseline.toString()}, print(err), print(err)))
+                .isEqualTo(BaselineComparison.INVALID);
+        assertThat(BaselineComparison.run(new String[]{baseline.toString(), invalid.toString()}, print(err), print(err))).isEqualTo(BaselineComparison.INVALID);
+        assertThat(new String(err.toByteArray(), StandardCharsets.UTF_8)).contains("Usage:");
+    }
+
+    private static String timings(double conversionMillis, double validationMillis) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 20; i++) {
+            double noise = 1.0 + (i % 5 - 2) * 0.01;
+            json.append(call("CompositionConverter.convertRawToFlat", conversionMillis * noise, null)).append(',');
+            json.append(call("CompositionValidator.validate", validationMillis * noise, null)).append(',');
+        }
+        json.append(call("CompositionConverter.convertRawToFlat", 1000.0, "java.lang.IllegalStateException")).append(']');
+        return json.toString();
+    }
+
+    private static String call(String operation, double millis, String exception) {
+        return String.format(
+                "{\"operation\":\"%s\",\"template\":\"Demo Vitals\",\"inputSize\":4646,\"outputSize\":4644,\"wallNanos\":%d,\"cpuNanos\":-1,\"exception\":%s}",
+                operation,
+                (long)(millis * 1.0e6),
+                exception == null ? "null" : '"' + exception + '"');
+    }
+
+    private static String jmh(double score, String converter) {
+        StringBuilder rawData = new StringBuilder("[");
+        for (int fork = 0; fork < 2; fork++) {
+            rawData.append(fork == 0 ? "[" : ",[");
+            for (int i = 0; i < 5; i++) {
+                rawData.append(i == 0 ? "" : ",").append(score * (1.0 + (i - 2) * 0.01));
+            }
+            rawData.append(']');
+        }
+        rawData.append(']');
+        return "{\"benchmark\":\"care.better.platform.web.template.benchmark.ConverterBenchmark.convertFlatToRaw\",\"mode\":\"thrpt\"," +
+                "\"params\":{\"composition\":\"DEMO_VITALS\",\"converter\":\"" + converter + "\",\"validator\":\"default\"," +
+                "\"provider\":\"default\",\"size\":\"10\"}," +
+                "\"primaryMetric\":{\"score\":" + score + ",\"scoreUnit\":\"ops/ms\",\"rawData\":" + rawData + "}}";
+    }
+
+    private Path write(String fileName, String content) throws IOException {
+        return Files.write(directory.resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static PrintStream print(ByteArrayOutputStream out) {
+        return new PrintStream(out, true);
+    }
+}
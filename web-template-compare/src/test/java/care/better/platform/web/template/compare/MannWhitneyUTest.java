@@ -0,0 +1,55 @@
+/* Copyright 2020-2021 Better Ltd (www.better.care)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package care.better.platform.web.template.compare;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class MannWhitneyUTest {
+
+    @Test
+    public void separatedSamples() {
+        MannWhitneyU test = new MannWhitneyU(new double[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, new double[]{11, 12, 13, 14, 15, 16, 17, 18, 19, 20});
+
+        assertThat(test.getU()).isEqualTo(0.0);
+        assertThat(test.getPValue()).isCloseTo(1.8267e-4, within(1.0e-7));
+        assertThat(new MannWhitneyU(new double[]{11, 12, 13, 14, 15, 16, 17, 18, 19, 20}, new double[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}).getU())
+                .isEqualTo(100.0);
+    }
+
+    @Test
+    public void ties() {
+        MannWhitneyU test = new MannWhitneyU(new double[]{1, 2, 2, 3, 4}, new double[]{2, 3, 5, 6, 7, 8});
+
+        assertThat(test.getU()).isEqualTo(4.5);
+        assertThat(test.getPValue()).isCloseTo(0.064769, within(1.0e-6));
+    }
+
+    @Test
+    public void sameSamples() {
+        assertThat(new MannWhitneyU(new double[]{5, 5, 5}, new double[]{5, 5}).getPValue()).isEqualTo(1.0);
+        assertThat(new MannWhitneyU(new double[]{1, 2, 3, 4}, new double[]{1, 2, 3, 4}).getPValue()).isEqualTo(1.0);
+        assertThat(new MannWhitneyU(new double[]{1}, new double[]{100}).getPValue()).isGreaterThan(0.05);
+    }
+
+    @Test
+    public void emptySample() {
+        assertThatThrownBy(() -> new MannWhitneyU(new double[0], new double[]{1})).isInstanceOf(IllegalArgumentException.class);
+    }
+}